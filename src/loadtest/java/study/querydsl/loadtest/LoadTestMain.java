@@ -0,0 +1,215 @@
+package study.querydsl.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * /v1/members 계열 부하 테스트 (gradle loadTest -Prate=300 -Pduration=60)
+ * 1. 메모리 H2 + 샘플 데이터로 QuerydslApplication을 띄운다
+ * 2. open model: 응답과 상관없이 정해진 간격(1/rate)마다 요청을 보낸다
+ * 3. 지연시간은 "보냈어야 하는 시각"부터 잰다 > 서버가 밀려서 늦게 보낸 시간까지 포함 (coordinated omission 방지)
+ * 4. 시나리오별 처리량, p50/p99/p999를 build/reports/loadtest 에 남긴다 (빌드끼리 비교용 csv 포함)
+ */
+public class LoadTestMain {
+
+    private static final int WINDOW_SECONDS = 10;
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("loadtest.rate", 200);
+        Duration warmUp = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+        int members = Integer.getInteger("loadtest.members", 10_000);
+        Path reportDir = Path.of(System.getProperty("loadtest.report-dir", "build/reports/loadtest"));
+        List<Scenario> scenarios = Scenario.load(System.getProperty("loadtest.scenarios"));
+
+        if ("warmup-compare".equals(System.getProperty("loadtest.mode"))) {
+            compareWarmUp(scenarios, rate, duration, members, reportDir);
+            return;
+        }
+
+        ConfigurableApplicationContext context = start("loadtest", members, true);
+        try {
+            String baseUrl = baseUrl(context);
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+            run(client, baseUrl, scenarios, rate, warmUp, null);
+            scenarios.forEach(scenario -> scenario.getLatencies().reset()); //warm-up 구간은 버린다
+            scenarios.forEach(scenario -> scenario.getErrors().reset());
+            run(client, baseUrl, scenarios, rate, duration, null);
+
+            report(scenarios, rate, duration, reportDir);
+        } finally {
+            SpringApplication.exit(context);
+        }
+    }
+
+    /**
+     * WarmUpRunner 효과 측정 (gradle loadTest -Pmode=warmup-compare -Pduration=60)
+     * warm-up 끔/켬으로 한번씩 새로 띄워서 기동 직후부터 버리는 구간 없이 부하를 걸고
+     * 전체 요청의 지연시간을 10초 구간별로 비교한다 (기동시간도 같이)
+     */
+    private static void compareWarmUp(List<Scenario> scenarios, int rate, Duration duration, int members, Path reportDir) throws IOException {
+        int windows = (int) Math.max(1, (duration.getSeconds() + WINDOW_SECONDS - 1) / WINDOW_SECONDS);
+        Map<String, Histogram[]> results = new LinkedHashMap<>();
+        Map<String, Long> startupMillis = new LinkedHashMap<>();
+
+        for (boolean warmUpEnabled : new boolean[]{false, true}) {
+            String name = warmUpEnabled ? "warm" : "cold";
+            long start = System.nanoTime();
+            ConfigurableApplicationContext context = start("loadtest-" + name, members, warmUpEnabled);
+            startupMillis.put(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            try {
+                Recorder[] recorders = new Recorder[windows];
+                for (int i = 0; i < windows; i++) {
+                    recorders[i] = new Recorder(3);
+                }
+                HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+                run(client, baseUrl(context), scenarios, rate, duration, recorders);
+
+                Histogram[] histograms = new Histogram[windows];
+                for (int i = 0; i < windows; i++) {
+                    histograms[i] = recorders[i].getIntervalHistogram();
+                }
+                results.put(name, histograms);
+            } finally {
+                SpringApplication.exit(context);
+            }
+        }
+
+        StringBuilder text = new StringBuilder();
+        text.append(String.format("target rate %d req/s, %d s from readiness, all scenarios%n", rate, duration.getSeconds()));
+        startupMillis.forEach((name, millis) -> text.append(String.format("startup %-5s %6d ms%n", name, millis)));
+        text.append(String.format("%-9s %-5s %8s %9s %9s %9s%n", "window", "", "count", "p50(ms)", "p99(ms)", "max(ms)"));
+        for (int i = 0; i < windows; i++) {
+            String window = String.format("%d-%ds", i * WINDOW_SECONDS, (i + 1) * WINDOW_SECONDS);
+            for (Map.Entry<String, Histogram[]> result : results.entrySet()) {
+                Histogram histogram = result.getValue()[i];
+                text.append(String.format("%-9s %-5s %8d %9.2f %9.2f %9.2f%n", window, result.getKey(),
+                        histogram.getTotalCount(),
+                        histogram.getValueAtPercentile(50.0) / 1000.0,
+                        histogram.getValueAtPercentile(99.0) / 1000.0,
+                        histogram.getMaxValue() / 1000.0));
+            }
+        }
+
+        Files.createDirectories(reportDir);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Files.writeString(reportDir.resolve("warmup-compare-" + timestamp + ".txt"), text);
+        System.out.print(text);
+    }
+
+    private static ConfigurableApplicationContext start(String database, int members, boolean warmUpEnabled) {
+        return SpringApplication.run(QuerydslApplication.class,
+                "--server.port=0",
+                "--spring.profiles.active=local",
+                "--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1",
+                "--init-member.count=" + members,
+                "--warmup.enabled=" + warmUpEnabled,
+                "--tracing.enabled=false", //local 프로필은 모든 요청을 로그로 trace > 측정에서 뺀다
+                "--logging.level.org.hibernate.SQL=info",
+                "--decorator.datasource.p6spy.enable-logging=false");
+    }
+
+    private static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    //windows: null이 아니면 보낸 시각 기준 WINDOW_SECONDS 구간별로도 기록 (시나리오 구분 없이)
+    private static void run(HttpClient client, String baseUrl, List<Scenario> scenarios, int rate, Duration duration, Recorder[] windows) {
+        int totalWeight = scenarios.stream().mapToInt(Scenario::getWeight).sum();
+        Random random = new Random(42); //빌드끼리 같은 순서로 섞이게 고정
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = duration.getSeconds() * rate;
+        long start = System.nanoTime();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+
+        for (long i = 0; i < requests; i++) {
+            long intendedStart = start + i * interval;
+            long wait;
+            while ((wait = intendedStart - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Scenario scenario = pick(scenarios, random.nextInt(totalWeight));
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + scenario.getPath()))
+                    .timeout(Duration.ofSeconds(10))
+                    .GET()
+                    .build();
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, e) -> {
+                        long latency = System.nanoTime() - intendedStart;
+                        scenario.getLatencies().recordValue(TimeUnit.NANOSECONDS.toMicros(latency));
+                        if (windows != null) {
+                            int window = (int) Math.min(windows.length - 1, (intendedStart - start) / TimeUnit.SECONDS.toNanos(WINDOW_SECONDS));
+                            windows[window].recordValue(TimeUnit.NANOSECONDS.toMicros(latency));
+                        }
+                        if (e != null || response.statusCode() != 200) {
+                            scenario.getErrors().increment();
+                        }
+                    }));
+        }
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new)).exceptionally(e -> null).join();
+    }
+
+    private static Scenario pick(List<Scenario> scenarios, int point) {
+        for (Scenario scenario : scenarios) {
+            point -= scenario.getWeight();
+            if (point < 0) {
+                return scenario;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void report(List<Scenario> scenarios, int rate, Duration duration, Path reportDir) throws IOException {
+        StringBuilder text = new StringBuilder();
+        StringBuilder csv = new StringBuilder("scenario,count,errors,throughput,p50_ms,p99_ms,p999_ms,max_ms\n");
+        text.append(String.format("target rate %d req/s, %d s%n", rate, duration.getSeconds()));
+        text.append(String.format("%-20s %8s %7s %10s %9s %9s %9s %9s%n",
+                "scenario", "count", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)"));
+
+        for (Scenario scenario : scenarios) {
+            Histogram histogram = scenario.getLatencies().getIntervalHistogram();
+            long count = histogram.getTotalCount();
+            double throughput = (double) count / duration.getSeconds();
+            double p50 = histogram.getValueAtPercentile(50.0) / 1000.0;
+            double p99 = histogram.getValueAtPercentile(99.0) / 1000.0;
+            double p999 = histogram.getValueAtPercentile(99.9) / 1000.0;
+            double max = histogram.getMaxValue() / 1000.0;
+            long errors = scenario.getErrors().sum();
+
+            text.append(String.format("%-20s %8d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    scenario.getName(), count, errors, throughput, p50, p99, p999, max));
+            csv.append(String.format("%s,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n",
+                    scenario.getName(), count, errors, throughput, p50, p99, p999, max));
+        }
+
+        Files.createDirectories(reportDir);
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Files.writeString(reportDir.resolve("loadtest-" + timestamp + ".txt"), text);
+        Files.writeString(reportDir.resolve("loadtest-" + timestamp + ".csv"), csv);
+        System.out.print(text);
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.loadtest;
+
+import org.HdrHistogram.Recorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 부하 시나리오 한 개 (요청 경로 + 섞는 비율) 와 그 결과
+ */
+public class Scenario {
+
+    private final String name;
+    private final int weight;
+    private final String path;
+
+    private final Recorder latencies = new Recorder(3); //단위: us
+    private final LongAdder errors = new LongAdder();
+
+    public Scenario(String name, int weight, String path) {
+        this.name = name;
+        this.weight = weight;
+        this.path = path;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Recorder getLatencies() {
+        return latencies;
+    }
+
+    public LongAdder getErrors() {
+        return errors;
+    }
+
+    /**
+     * 형식: 이름 가중치 경로 (# 으로 시작하면 주석)
+     * file이 없으면 클래스패스의 loadtest-scenarios.txt
+     */
+    public static List<Scenario> load(String file) throws IOException {
+        try (InputStream in = file != null
+                ? Files.newInputStream(Path.of(file))
+                : Scenario.class.getResourceAsStream("/loadtest-scenarios.txt")) {
+            List<Scenario> scenarios = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split("\\s+");
+                scenarios.add(new Scenario(columns[0], Integer.parseInt(columns[1]), columns[2]));
+            }
+            return scenarios;
+        }
+    }
+}
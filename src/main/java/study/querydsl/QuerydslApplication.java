@@ -1,11 +1,17 @@
 package study.querydsl;
 
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLQueryFactory;
+import com.querydsl.sql.spring.SpringConnectionProvider;
+import com.querydsl.sql.spring.SpringExceptionTranslator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import study.querydsl.jfr.RecordingJPAQueryFactory;
 
 import javax.persistence.EntityManager;
+import javax.sql.DataSource;
 
 @SpringBootApplication
 public class QuerydslApplication {
@@ -16,6 +22,13 @@ public class QuerydslApplication {
 
 	@Bean //빈으로 등록해버리자!!
 	JPAQueryFactory jpaQueryFactory(EntityManager em) {
-		return new JPAQueryFactory(em);
+		return new RecordingJPAQueryFactory(em); //실행마다 JFR 이벤트 (study.querydsl.jfr)
+	}
+
+	@Bean //querydsl-sql: 트랜잭션에 묶인 커넥션을 그대로 사용 (JPA와 같은 트랜잭션 안에서 동작)
+	SQLQueryFactory sqlQueryFactory(DataSource dataSource) {
+		com.querydsl.sql.Configuration configuration = new com.querydsl.sql.Configuration(new H2Templates());
+		configuration.setExceptionTranslator(new SpringExceptionTranslator());
+		return new SQLQueryFactory(configuration, new SpringConnectionProvider(dataSource));
 	}
 }
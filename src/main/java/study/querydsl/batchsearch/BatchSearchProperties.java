@@ -0,0 +1,15 @@
+package study.querydsl.batchsearch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "batch-search")
+public class BatchSearchProperties {
+
+    private int maxConditions = 50; //요청 하나에 담을 수 있는 조건 수
+    private int parallelism = 2; //동시에 실행하는 조건 쿼리 수 (전체 요청 합계, 커넥션을 이만큼 더 쓴다)
+}
@@ -0,0 +1,87 @@
+package study.querydsl.batchsearch;
+
+import io.opentelemetry.context.Context;
+import org.springframework.stereotype.Component;
+import study.querydsl.budget.QueryBudget;
+import study.querydsl.budget.QueryBudgetHolder;
+import study.querydsl.dto.MemberBatchSearchResult;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 조건 여러 개를 요청 하나로 검색 (화면 하나가 /v1/members를 수십번 부르는 대신)
+ * 조건마다 MemberJpaRepository.search를 고정 크기 스레드풀에서 병렬로 실행하고 조건 순서대로 묶어서 반환
+ * 같은 조건이 여러번 오면 한번만 실행한다
+ * 요청의 QueryBudget(마감시각, 취소)과 trace context를 작업 스레드로 옮긴다 > 요청이 timeout되면 실행중인 조건 쿼리가 모두 취소된다
+ */
+@Component
+public class MemberBatchSearch {
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ExecutorService executor;
+
+    public MemberBatchSearch(MemberJpaRepository memberJpaRepository, BatchSearchProperties properties) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.executor = Context.taskWrapping(Executors.newFixedThreadPool(properties.getParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "member-batch-search");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public List<MemberBatchSearchResult> search(List<MemberSearchCondition> conditions) {
+        QueryBudget budget = QueryBudgetHolder.get();
+
+        Map<MemberSearchCondition, CompletableFuture<List<MemberTeamDto>>> futures = new LinkedHashMap<>();
+        for (MemberSearchCondition condition : conditions) {
+            futures.computeIfAbsent(condition, key -> CompletableFuture.supplyAsync(() -> searchWithBudget(key, budget), executor));
+        }
+
+        List<MemberBatchSearchResult> results = new ArrayList<>(conditions.size());
+        try {
+            for (int i = 0; i < conditions.size(); i++) {
+                results.add(new MemberBatchSearchResult(i, join(futures.get(conditions.get(i)))));
+            }
+        } catch (RuntimeException e) {
+            futures.values().forEach(future -> future.cancel(false)); //아직 시작 안한 조건은 실행하지 않는다
+            throw e;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private List<MemberTeamDto> searchWithBudget(MemberSearchCondition condition, QueryBudget budget) {
+        QueryBudgetHolder.set(budget);
+        try {
+            return memberJpaRepository.search(condition);
+        } finally {
+            QueryBudgetHolder.clear();
+        }
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
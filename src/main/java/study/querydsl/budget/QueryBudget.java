@@ -0,0 +1,68 @@
+package study.querydsl.budget;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 하나가 쓸 수 있는 쿼리 예산 (마감시각, 최대 row 수)
+ * 비동기 요청이 timeout되거나 클라이언트가 끊으면 cancel() > 실행중인 JDBC statement를 취소한다 (Session.cancelQuery)
+ */
+public class QueryBudget {
+
+    private final long deadlineNanos;
+    private final int maxRows;
+    private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+    private volatile boolean truncated;
+
+    public QueryBudget(long timeoutMillis, int maxRows) {
+        this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        this.maxRows = maxRows;
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    //maxRows에서 잘린 결과가 있었다 > 응답 헤더로 알려준다
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    public void markTruncated() {
+        truncated = true;
+    }
+
+    //쿼리를 실행하는 세션을 기억해둬야 다른 스레드에서 취소할 수 있다
+    public void register(Session session) {
+        sessions.add(session);
+        if (cancelled) {
+            cancelQuery(session);
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+        sessions.forEach(QueryBudget::cancelQuery);
+    }
+
+    private static void cancelQuery(Session session) {
+        try {
+            session.cancelQuery();
+        } catch (HibernateException e) {
+            //이미 끝났거나 닫힌 세션 > 취소할 것이 없다
+        }
+    }
+}
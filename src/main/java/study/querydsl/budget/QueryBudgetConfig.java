@@ -0,0 +1,43 @@
+package study.querydsl.budget;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Callable 검색은 전용 스레드 풀에서 실행 (boot 기본 applicationTaskExecutor는 큐가 무제한이라 밀리면 끝없이 쌓인다)
+ * 풀, 큐 크기를 넘으면 TaskRejectedException > 503 (QueryBudgetExceptionHandler)
+ */
+@Configuration
+@RequiredArgsConstructor
+public class QueryBudgetConfig implements WebMvcConfigurer {
+
+    private final QueryBudgetInterceptor queryBudgetInterceptor;
+    private final QueryBudgetProperties properties;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryBudgetInterceptor);
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(queryBudgetInterceptor);
+        configurer.setDefaultTimeout(properties.getMaxTimeout().toMillis()); //그 전에 statement timeout이 먼저 걸린다
+        configurer.setTaskExecutor(searchTaskExecutor());
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor searchTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("search-");
+        executor.setCorePoolSize(properties.getAsyncPoolSize());
+        executor.setMaxPoolSize(properties.getAsyncPoolSize());
+        executor.setQueueCapacity(properties.getAsyncQueueCapacity());
+        return executor;
+    }
+}
@@ -0,0 +1,35 @@
+package study.querydsl.budget;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * statement timeout, 예산 소진, 비동기 요청 timeout으로 인한 취소 모두 QueryTimeoutException으로 번역되어 올라온다
+ */
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class QueryBudgetExceptionHandler {
+
+    private final QueryBudgets queryBudgets;
+
+    @ExceptionHandler(QueryTimeoutException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String queryTimeout(QueryTimeoutException e) {
+        QueryBudget budget = QueryBudgetHolder.get();
+        queryBudgets.violation(budget != null && budget.isCancelled() ? "cancelled" : "timeout");
+        return "query budget exceeded";
+    }
+
+    //검색 스레드 풀, 큐가 가득 참 (QueryBudgetConfig)
+    @ExceptionHandler(TaskRejectedException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public String searchRejected(TaskRejectedException e) {
+        queryBudgets.violation("rejected");
+        return "search executor saturated";
+    }
+}
@@ -0,0 +1,22 @@
+package study.querydsl.budget;
+
+/**
+ * 현재 스레드(요청)의 QueryBudget
+ * Callable로 넘어간 요청은 QueryBudgetInterceptor가 비동기 스레드에도 옮겨준다
+ */
+public abstract class QueryBudgetHolder {
+
+    private static final ThreadLocal<QueryBudget> CURRENT = new ThreadLocal<>();
+
+    public static QueryBudget get() {
+        return CURRENT.get();
+    }
+
+    public static void set(QueryBudget budget) {
+        CURRENT.set(budget);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,114 @@
+package study.querydsl.budget;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.Callable;
+
+/**
+ * 요청마다 QueryBudget을 만들어서 요청 스레드(와 Callable을 실행하는 비동기 스레드)에 걸어둔다
+ * 검색 핸들러는 Callable을 반환 > budget.cancel()로 실행중인 쿼리를 취소하는 경우
+ * - 비동기 요청의 timeout(query-budget.max-timeout)이 지남 > handleTimeout
+ * - 클라이언트 연결 끊김 등 컨테이너가 알려준 오류 > handleError
+ * - Callable이 끝나기 전에 비동기 요청이 끝남 > afterCompletion
+ * 컨테이너가 끊김을 알아채지 못하는 경우는 statement timeout(남은 예산)으로 끝난다
+ * 결과가 max-rows에서 잘렸으면 X-Result-Truncated: true (응답을 쓰기 전인 postProcess에서)
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryBudgetInterceptor implements AsyncHandlerInterceptor, CallableProcessingInterceptor {
+
+    private static final String BUDGET = QueryBudgetInterceptor.class.getName() + ".BUDGET";
+    private static final String COMPLETED = QueryBudgetInterceptor.class.getName() + ".COMPLETED"; //Callable이 끝났다
+
+    private final QueryBudgetProperties properties;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryBudget budget = (QueryBudget) request.getAttribute(BUDGET);
+        if (budget == null) { //비동기 재디스패치 때는 처음 만든 것을 그대로 사용
+            budget = new QueryBudget(timeoutMillis(request), properties.getMaxRows());
+            request.setAttribute(BUDGET, budget);
+        }
+        QueryBudgetHolder.set(budget);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        QueryBudgetHolder.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        QueryBudgetHolder.clear();
+    }
+
+    //Callable 실행 스레드
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        QueryBudgetHolder.set(budget(request));
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        QueryBudget budget = budget(request);
+        HttpServletResponse response = request.getNativeResponse(HttpServletResponse.class);
+        if (budget != null && budget.isTruncated() && response != null) {
+            response.setHeader(properties.getTruncatedHeader(), "true");
+        }
+        request.setAttribute(COMPLETED, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        QueryBudgetHolder.clear();
+    }
+
+    @Override
+    public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+        cancel(request);
+        return RESULT_NONE;
+    }
+
+    //컨테이너가 비동기 요청 오류를 알려준 경우 (클라이언트 끊김, 응답 쓰기 실패 등)
+    @Override
+    public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable t) {
+        cancel(request);
+        return RESULT_NONE;
+    }
+
+    //Callable보다 비동기 요청이 먼저 끝났다 > 아직 돌고 있는 쿼리는 결과를 받을 곳이 없다
+    @Override
+    public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+        if (request.getAttribute(COMPLETED, RequestAttributes.SCOPE_REQUEST) == null) {
+            cancel(request);
+        }
+    }
+
+    private void cancel(NativeWebRequest request) {
+        QueryBudget budget = budget(request);
+        if (budget != null) {
+            budget.cancel();
+        }
+    }
+
+    private QueryBudget budget(NativeWebRequest request) {
+        return (QueryBudget) request.getAttribute(BUDGET, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    private long timeoutMillis(HttpServletRequest request) {
+        String header = request.getHeader(properties.getTimeoutHeader());
+        long timeout = properties.getDefaultTimeout().toMillis();
+        if (header != null) {
+            try {
+                timeout = Long.parseLong(header.trim());
+            } catch (NumberFormatException e) {
+                //잘못된 값이면 기본값
+            }
+        }
+        return Math.max(0, Math.min(timeout, properties.getMaxTimeout().toMillis()));
+    }
+}
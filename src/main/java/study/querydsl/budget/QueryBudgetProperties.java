@@ -0,0 +1,22 @@
+package study.querydsl.budget;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "query-budget")
+public class QueryBudgetProperties {
+
+    private Duration defaultTimeout = Duration.ofSeconds(5);
+    private Duration maxTimeout = Duration.ofSeconds(30);
+    private int maxRows = 10_000; //조건 없는 검색도 이 이상은 못가져온다
+    private String timeoutHeader = "X-Request-Timeout"; //클라이언트가 보낸 요청별 제한시간 (ms)
+    private String truncatedHeader = "X-Result-Truncated"; //max-rows에서 잘렸으면 true
+    private int asyncPoolSize = 8; //Callable 검색을 실행하는 스레드 수 (bulkhead 동시 실행 수, 커넥션 풀 크기에 맞춘다)
+    private int asyncQueueCapacity = 32; //넘치면 503
+}
@@ -0,0 +1,72 @@
+package study.querydsl.budget;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 검색 쿼리에 현재 요청의 예산을 적용한다
+ * - 남은 시간 > javax.persistence.query.timeout 힌트 (JDBC statement timeout)
+ * - 최대 row 수 > limit 강제
+ * - 실행 세션 등록 > 비동기 요청 timeout이면 취소
+ * 요청 밖(테스트, warm-up 등)에서 호출되면 기본값으로 만든 예산을 쓴다
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryBudgets {
+
+    private static final String TIMEOUT_HINT = "javax.persistence.query.timeout";
+
+    private final EntityManager em;
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudget current() {
+        QueryBudget budget = QueryBudgetHolder.get();
+        return budget != null ? budget : new QueryBudget(properties.getDefaultTimeout().toMillis(), properties.getMaxRows());
+    }
+
+    //시간 예산만 (count 쿼리, 페이징 쿼리)
+    public <T> JPAQuery<T> apply(JPAQuery<T> query) {
+        QueryBudget budget = current();
+        long remaining = budget.remainingMillis();
+        if (budget.isCancelled() || remaining <= 0) {
+            throw new QueryTimeoutException("query budget exhausted"); //지표는 QueryBudgetExceptionHandler에서
+        }
+        budget.register(em.unwrap(Session.class));
+        long seconds = Math.max(1, (remaining + 999) / 1000); //JDBC timeout은 초 단위 (1초 미만은 0 = 무제한이 되어버림)
+        return query.setHint(TIMEOUT_HINT, (int) (seconds * 1000)); //hibernate는 Integer(또는 String)만 받는다
+    }
+
+    //시간 + row 수 예산, 페이징 없는 검색은 이걸로 실행
+    //한 건 더 가져와서 실제로 잘렸는지 본다 > budget.isTruncated() (X-Result-Truncated 헤더)
+    public <T> List<T> fetch(JPAQuery<T> query) {
+        QueryBudget budget = current();
+        int maxRows = budget.getMaxRows();
+        Long limit = query.getMetadata().getModifiers().getLimit();
+        if (limit == null || limit > maxRows) {
+            query.limit(maxRows + 1L);
+        }
+        List<T> result = apply(query).fetch();
+        if (result.size() > maxRows) {
+            budget.markTruncated();
+            violation("row-cap");
+            return result.subList(0, maxRows);
+        }
+        return result;
+    }
+
+    public long pageSize(long pageSize) {
+        return Math.min(pageSize, current().getMaxRows());
+    }
+
+    public void violation(String type) {
+        meterRegistry.counter("query.budget.violations", "type", type).increment();
+    }
+}
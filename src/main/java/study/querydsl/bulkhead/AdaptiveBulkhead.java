@@ -0,0 +1,54 @@
+package study.querydsl.bulkhead;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AIMD 방식으로 limit을 조절하는 bulkhead
+ * - 응답이 latencyThreshold 안에 오면 limit + 1 (additive increase)
+ * - 느려지면 limit * backoffRatio (multiplicative decrease)
+ * limit이 차 있으면 maxWait 만큼만 기다리고 포기한다 (커넥션 풀에서 줄서기 전에 거절)
+ */
+public class AdaptiveBulkhead {
+
+    private final BulkheadProperties.Limit config;
+
+    private int limit; //guarded by this
+    private int inFlight; //guarded by this
+
+    public AdaptiveBulkhead(BulkheadProperties.Limit config) {
+        this.config = config;
+        this.limit = Math.max(config.getMinLimit(), Math.min(config.getInitialLimit(), config.getMaxConcurrent()));
+    }
+
+    public synchronized boolean tryAcquire() throws InterruptedException {
+        long remaining = config.getMaxWait().toNanos();
+        long deadline = System.nanoTime() + remaining;
+        while (inFlight >= limit) {
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        inFlight++;
+        return true;
+    }
+
+    public synchronized void release(long latencyNanos) {
+        if (latencyNanos > config.getLatencyThreshold().toNanos()) {
+            limit = Math.max(config.getMinLimit(), (int) (limit * config.getBackoffRatio()));
+        } else if (inFlight * 2 >= limit) { //한가할 때 늘려봐야 의미가 없으니 절반 이상 쓰고 있을 때만 늘린다
+            limit = Math.min(config.getMaxConcurrent(), limit + 1);
+        }
+        inFlight--;
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,16 @@
+package study.querydsl.bulkhead;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 컨트롤러 메소드에 붙이면 해당 그룹의 bulkhead 안에서만 실행된다
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    BulkheadType value();
+}
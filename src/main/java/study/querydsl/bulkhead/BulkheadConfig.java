@@ -0,0 +1,18 @@
+package study.querydsl.bulkhead;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class BulkheadConfig implements WebMvcConfigurer {
+
+    private final BulkheadInterceptor bulkheadInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(bulkheadInterceptor);
+    }
+}
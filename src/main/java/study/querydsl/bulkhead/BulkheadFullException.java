@@ -0,0 +1,27 @@
+package study.querydsl.bulkhead;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * 503 + Retry-After (클라이언트가 바로 재시도해서 다시 몰리지 않게)
+ */
+public class BulkheadFullException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public BulkheadFullException(BulkheadType type, Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "bulkhead full: " + type);
+        this.retryAfterSeconds = Math.max(1, (retryAfter.toMillis() + 999) / 1000); //Retry-After는 초 단위
+    }
+
+    @Override
+    public HttpHeaders getResponseHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
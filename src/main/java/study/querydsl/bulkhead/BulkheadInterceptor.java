@@ -0,0 +1,79 @@
+package study.querydsl.bulkhead;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Bulkhead 가 붙은 핸들러는 permit을 얻어야 실행된다
+ * permit은 요청이 끝날 때(afterCompletion) 응답시간과 함께 반납 > AIMD limit 조절에 사용
+ * 비동기(Callable) 요청은 첫 디스패치에서 afterCompletion이 호출되지 않으므로 재디스패치가 끝날 때 반납된다
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkheadInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT = BulkheadInterceptor.class.getName() + ".PERMIT";
+    public static final String QUEUE_WAIT = BulkheadInterceptor.class.getName() + ".QUEUE_WAIT"; //permit 대기 시간(ns), Server-Timing에서 사용
+
+    private final BulkheadProperties properties;
+    private final BulkheadRegistry registry;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!properties.isEnabled() || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        if (request.getAttribute(PERMIT) != null) { //Callable 핸들러의 비동기 재디스패치 > 이미 permit을 들고 있다
+            return true;
+        }
+        Bulkhead bulkhead = ((HandlerMethod) handler).getMethodAnnotation(Bulkhead.class);
+        if (bulkhead == null) {
+            return true;
+        }
+
+        BulkheadType type = bulkhead.value();
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = registry.get(type).tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        long acquiredAt = System.nanoTime();
+        registry.queueWait(type).record(acquiredAt - start, TimeUnit.NANOSECONDS);
+        request.setAttribute(QUEUE_WAIT, acquiredAt - start);
+
+        if (!acquired) {
+            registry.rejected(type).increment();
+            throw new BulkheadFullException(type, properties.getRetryAfter());
+        }
+        request.setAttribute(PERMIT, new Permit(type, acquiredAt));
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Permit permit = (Permit) request.getAttribute(PERMIT);
+        if (permit != null) {
+            request.removeAttribute(PERMIT);
+            registry.get(permit.type).release(System.nanoTime() - permit.acquiredAt);
+        }
+    }
+
+    private static class Permit {
+        private final BulkheadType type;
+        private final long acquiredAt;
+
+        private Permit(BulkheadType type, long acquiredAt) {
+            this.type = type;
+            this.acquiredAt = acquiredAt;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package study.querydsl.bulkhead;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "bulkhead")
+public class BulkheadProperties {
+
+    private boolean enabled = true;
+    private Duration retryAfter = Duration.ofSeconds(1); //거절 응답의 Retry-After
+    private Map<BulkheadType, Limit> limits = new HashMap<>();
+
+    public Limit limitOf(BulkheadType type) {
+        return limits.getOrDefault(type, new Limit());
+    }
+
+    @Getter @Setter
+    public static class Limit {
+        private int maxConcurrent = 4; //상한 (그룹 합계가 커넥션 풀 크기를 넘지 않게 잡자)
+        private int minLimit = 1;
+        private int initialLimit = 2;
+        private Duration maxWait = Duration.ofMillis(50); //이 시간 안에 자리가 안나면 바로 503
+        private Duration latencyThreshold = Duration.ofMillis(500); //이보다 느리면 limit을 줄인다
+        private double backoffRatio = 0.9;
+    }
+}
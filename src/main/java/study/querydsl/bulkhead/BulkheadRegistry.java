@@ -0,0 +1,47 @@
+package study.querydsl.bulkhead;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 그룹별 bulkhead와 지표(대기시간, 거절수, limit, 실행중 수)를 들고 있다
+ */
+@Component
+public class BulkheadRegistry {
+
+    private final Map<BulkheadType, AdaptiveBulkhead> bulkheads = new EnumMap<>(BulkheadType.class);
+    private final Map<BulkheadType, Timer> queueWaits = new EnumMap<>(BulkheadType.class);
+    private final Map<BulkheadType, Counter> rejections = new EnumMap<>(BulkheadType.class);
+
+    public BulkheadRegistry(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        for (BulkheadType type : BulkheadType.values()) {
+            AdaptiveBulkhead bulkhead = new AdaptiveBulkhead(properties.limitOf(type));
+            Tags tags = Tags.of("bulkhead", type.name().toLowerCase());
+
+            bulkheads.put(type, bulkhead);
+            queueWaits.put(type, Timer.builder("bulkhead.queue.wait").tags(tags).register(meterRegistry));
+            rejections.put(type, Counter.builder("bulkhead.rejected").tags(tags).register(meterRegistry));
+            Gauge.builder("bulkhead.limit", bulkhead, AdaptiveBulkhead::getLimit).tags(tags).register(meterRegistry);
+            Gauge.builder("bulkhead.in-flight", bulkhead, AdaptiveBulkhead::getInFlight).tags(tags).register(meterRegistry);
+        }
+    }
+
+    public AdaptiveBulkhead get(BulkheadType type) {
+        return bulkheads.get(type);
+    }
+
+    public Timer queueWait(BulkheadType type) {
+        return queueWaits.get(type);
+    }
+
+    public Counter rejected(BulkheadType type) {
+        return rejections.get(type);
+    }
+}
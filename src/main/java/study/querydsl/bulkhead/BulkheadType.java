@@ -0,0 +1,11 @@
+package study.querydsl.bulkhead;
+
+/**
+ * 엔드포인트 그룹 (그룹마다 동시 실행 수를 따로 관리한다)
+ * SEARCH: 페이징된 화면 검색, EXPORT: 페이징 없는 전체 조회, BULK: 대량 처리
+ */
+public enum BulkheadType {
+    SEARCH,
+    EXPORT,
+    BULK
+}
@@ -0,0 +1,17 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+/**
+ * cache_version이 바뀌었다 (어느 노드의 쓰기인지는 모른다) > 해당 종류의 로컬 캐시를 비울 것
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor
+public class CacheVersionChangedEvent {
+
+    private final String entityType;
+    private final long version;
+}
@@ -0,0 +1,82 @@
+package study.querydsl.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * cache_version을 주기적으로 읽어서 바뀐 종류마다 CacheVersionChangedEvent 발행
+ * 행 몇 개짜리 select 한 번 (트랜잭션 없이), 첫 번째 읽은 값은 기준값으로만 쓴다
+ */
+@Slf4j
+@Component
+public class CacheVersionPoller {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher publisher;
+    private final CacheVersionProperties properties;
+    private final Map<String, Long> versions = new HashMap<>();
+    private boolean initialized;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cache-version-poll");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //EntityManagerFactory: 테이블 생성(ddl-auto)이 끝난 뒤에 시작하려고 받는다
+    public CacheVersionPoller(DataSource dataSource, ApplicationEventPublisher publisher,
+                              CacheVersionProperties properties, EntityManagerFactory emf) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.publisher = publisher;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (properties.isPollEnabled()) {
+            long interval = properties.getPollInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::pollQuietly, 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (RuntimeException e) {
+            log.warn("cache_version poll failed", e); //다음 주기에 다시
+        }
+    }
+
+    //스케줄러 스레드 하나에서만 호출
+    void poll() {
+        Map<String, Long> current = new HashMap<>();
+        jdbcTemplate.query("select entity_type, version from cache_version",
+                resultSet -> { current.put(resultSet.getString(1), resultSet.getLong(2)); });
+
+        if (initialized) {
+            for (Map.Entry<String, Long> entry : current.entrySet()) {
+                if (!entry.getValue().equals(versions.get(entry.getKey()))) {
+                    publisher.publishEvent(new CacheVersionChangedEvent(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+        versions.putAll(current);
+        initialized = true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
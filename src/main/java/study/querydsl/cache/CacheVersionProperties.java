@@ -0,0 +1,17 @@
+package study.querydsl.cache;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "cache-version")
+public class CacheVersionProperties {
+
+    private boolean pollEnabled = true;
+    private Duration pollInterval = Duration.ofSeconds(1); //다른 노드의 쓰기가 이 노드 캐시에 반영되기까지 최대 지연
+}
@@ -0,0 +1,115 @@
+package study.querydsl.cache;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.EventSource;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * cache_version 올리기
+ * 변경이 몇 건이든 트랜잭션(세션)당 종류별로 한 번, 커밋 직전(마지막 flush 이후)에 같은 커넥션으로 올린다
+ * > 행 잠금은 커밋 직전부터 커밋까지만, 롤백되면 버전도 안 올라간다
+ * 세션별 대기 목록은 트랜잭션이 끝나거나 세션이 닫히면 지운다 (트랜잭션 없이 닫힌 세션도 남지 않는다)
+ */
+public abstract class CacheVersions {
+
+    public static final String MEMBER = "Member";
+    public static final String TEAM = "Team";
+
+    //키는 세션 객체 그대로 (SessionImpl은 equals를 재정의하지 않는다), 놓친 것이 있어도 세션과 같이 GC된다
+    private static final Map<EventSource, Bump> PENDING = Collections.synchronizedMap(new WeakHashMap<>());
+    //세션 팩토리(= 노드)별, 한 JVM에 컨텍스트가 여러 개여도 섞이지 않는다 (스프링 EMF 프록시도 SessionFactory라서 Implementor로 꺼낸다)
+    private static final Map<SessionFactoryImplementor, List<Consumer<String>>> COMMIT_LISTENERS = Collections.synchronizedMap(new WeakHashMap<>());
+
+    //벌크 연산, native SQL 처럼 엔티티 이벤트가 안 나오는 쓰기에서 직접 호출
+    public static void bump(EntityManager em, String... entityTypes) {
+        EventSource session = em.unwrap(EventSource.class);
+        for (String entityType : entityTypes) {
+            mark(session, entityType);
+        }
+    }
+
+    /**
+     * 이 노드에서 커밋된 변경을 커밋한 스레드에서 바로 알린다 (커밋 호출이 돌아오기 전, 버전을 올린 종류마다)
+     * 다른 노드의 변경은 CacheVersionPoller의 CacheVersionChangedEvent로만 온다
+     */
+    public static void addCommitListener(EntityManagerFactory emf, Consumer<String> listener) {
+        COMMIT_LISTENERS.computeIfAbsent(emf.unwrap(SessionFactoryImplementor.class), factory -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    public static void removeCommitListener(EntityManagerFactory emf, Consumer<String> listener) {
+        List<Consumer<String>> listeners = COMMIT_LISTENERS.get(emf.unwrap(SessionFactoryImplementor.class));
+        if (listeners != null) {
+            listeners.remove(listener);
+        }
+    }
+
+    static void mark(EventSource session, String entityType) {
+        Bump bump = PENDING.get(session);
+        if (bump == null) {
+            bump = new Bump();
+            PENDING.put(session, bump);
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) bump);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) bump);
+            session.getEventListenerManager().addListener(new BaseSessionEventListener() {
+                @Override
+                public void end() { //세션 닫힘
+                    PENDING.remove(session);
+                }
+            });
+        }
+        bump.entityTypes.add(entityType);
+    }
+
+    static boolean isPending(EventSource session) {
+        return PENDING.containsKey(session);
+    }
+
+    private static class Bump implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final Set<String> entityTypes = new TreeSet<>(); //항상 같은 순서로 잠근다 (노드간 데드락 방지)
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            session.doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "merge into cache_version c using (values cast(? as varchar(255))) s(entity_type)" +
+                                " on c.entity_type = s.entity_type" +
+                                " when matched then update set c.version = c.version + 1" +
+                                " when not matched then insert (entity_type, version) values (s.entity_type, 1)")) {
+                    for (String entityType : entityTypes) {
+                        statement.setString(1, entityType);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            });
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            PENDING.remove(session); //커밋이든 롤백이든 정리
+            List<Consumer<String>> listeners = COMMIT_LISTENERS.get(session.getFactory());
+            if (success && listeners != null) {
+                for (String entityType : entityTypes) {
+                    listeners.forEach(listener -> listener.accept(entityType));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package study.querydsl.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.repository.MemberCountEstimator;
+
+/**
+ * 이 노드의 캐시 비우기 (totalCount 추정 캐시)
+ * 로컬 캐시를 새로 만들면 여기서 같이 비운다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocalCacheEvictor {
+
+    private final MemberCountEstimator countEstimator;
+
+    @EventListener
+    public void evict(CacheVersionChangedEvent event) {
+        log.debug("evict local caches: {}", event);
+        if (CacheVersions.MEMBER.equals(event.getEntityType()) || CacheVersions.TEAM.equals(event.getEntityType())) { //team은 teamName 조건 count
+            countEstimator.invalidate();
+        }
+    }
+}
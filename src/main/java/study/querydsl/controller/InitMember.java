@@ -1,7 +1,10 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
@@ -18,9 +21,24 @@ public class InitMember {
 
     private final InitMemberService initMemberService;
 
+    @Value("${init-member.async:false}")
+    private boolean async;
+
     @PostConstruct//Transaction 부분 따로 분리해줘야함 (하나의 메소드에 함꼐 사용 불가능)
     public void inti() {
-        initMemberService.init();
+        if (!async) {
+            initMemberService.init();
+        }
+    }
+
+    //fast 모드: 기동을 막지 않도록 컨텍스트가 다 뜬 다음 백그라운드에서 입력
+    @EventListener(ApplicationReadyEvent.class)
+    public void initAsync() {
+        if (async) {
+            Thread thread = new Thread(initMemberService::init, "init-member");
+            thread.setDaemon(true);
+            thread.start();
+        }
     }
 
     @Component
@@ -29,6 +47,9 @@ public class InitMember {
         @PersistenceContext
         private EntityManager em;
 
+        @Value("${init-member.count:100}")
+        private int count;
+
         @Transactional
         public void init() {
             Team teamA = new Team("teamA");
@@ -36,7 +57,7 @@ public class InitMember {
             em.persist(teamA);
             em.persist(teamB);
 
-            for (int i = 0; i < 100; i++) {
+            for (int i = 0; i < count; i++) {
                 Team selectedTeam = i % 2 == 0 ? teamA : teamB;
                 em.persist(new Member("member" + i, i, selectedTeam));
             }
@@ -1,31 +1,155 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.querydsl.batchsearch.BatchSearchProperties;
+import study.querydsl.batchsearch.MemberBatchSearch;
+import study.querydsl.bulkhead.Bulkhead;
+import study.querydsl.bulkhead.BulkheadType;
+import study.querydsl.dto.EstimatedPage;
+import study.querydsl.dto.MemberBatchSearchResult;
 import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberField;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSearchTableRepository;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepository memberRepository;
+    private final MemberSearchTableRepository memberSearchTableRepository;
+    private final MemberBatchSearch memberBatchSearch;
+    private final BatchSearchProperties batchSearchProperties;
+
+    @Value("${member.search.projection-table:false}")
+    private boolean projectionTable; //true > member_search 테이블에서 조인 없이 검색
 
     /**
      * 회원 출력과 검색
      * http://localhost:8080/v1/members?teamName=teamB&ageGoe=31&ageLoe=35&username=member31
      * 이런식으로 검색이 가능하다
+     * 페이징이 없어서 조건이 비면 전체를 끌고옴 > EXPORT bulkhead로 따로 묶어서 다른 검색을 굶기지 않게 한다
+     * 검색은 Callable로 반환 (비동기 요청 timeout, 클라이언트 끊김이면 실행중인 쿼리를 취소한다, QueryBudgetInterceptor)
+     * query-budget.max-rows에서 잘렸으면 X-Result-Truncated: true
      * @param condition
      * @return
      */
+    @Bulkhead(BulkheadType.EXPORT)
     @GetMapping("/v1/members")
-    public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.search(condition);
+    public Callable<List<MemberTeamDto>> searchMemberV1(MemberSearchCondition condition) {
+        if (projectionTable) {
+            return () -> memberSearchTableRepository.search(condition);
+        }
+        return () -> memberJpaRepository.search(condition);
+    }
+
+    /**
+     * id, username 조회 (member-snapshot이 켜져 있고 최신이면 스냅샷에서, DB를 안 탄다)
+     * read-your-writes: 이 노드에서 커밋된 쓰기는 커밋 직후부터 보인다 (스냅샷을 버리고 DB에서)
+     * 다른 노드의 쓰기는 cache-version.poll-interval 만큼 늦게 보일 수 있다, 커밋 전 쓰기는 같은 트랜잭션에서도 안 보인다
+     * http://localhost:8080/v1/members/7
+     */
+    @GetMapping("/v1/members/{id}")
+    public MemberTeamDto findMemberV1(@PathVariable Long id) {
+        return memberRepository.findDtoById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "member not found: " + id));
+    }
+
+    /**
+     * member_id 순, 최신성(read-your-writes)은 /v1/members/{id}와 같다
+     * http://localhost:8080/v1/members/by-username/member7
+     */
+    @GetMapping("/v1/members/by-username/{username}")
+    public List<MemberTeamDto> findMembersByUsernameV1(@PathVariable String username) {
+        return memberRepository.findDtosByUsername(username);
+    }
+
+    /**
+     * 조건 여러 개를 한번에 검색, 결과는 조건 순서대로 (index)
+     * POST http://localhost:8080/v1/members/batch-search
+     * [{"teamName":"teamA"}, {"ageGoe":30,"ageLoe":40}, {"username":"member1"}]
+     * 조건 쿼리를 병렬로 실행하므로 BULK bulkhead로 묶는다
+     */
+    @Bulkhead(BulkheadType.BULK)
+    @PostMapping("/v1/members/batch-search")
+    public Callable<List<MemberBatchSearchResult>> batchSearchMemberV1(@RequestBody List<MemberSearchCondition> conditions) {
+        if (conditions.size() > batchSearchProperties.getMaxConditions()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "too many conditions (max " + batchSearchProperties.getMaxConditions() + ")");
+        }
+        return () -> memberBatchSearch.search(conditions);
+    }
+
+    /**
+     * 필요한 필드만 조회 (team 필드와 teamName 조건이 없으면 team 조인도 안함)
+     * http://localhost:8080/v1/members?fields=username,age&ageGoe=30
+     */
+    @Bulkhead(BulkheadType.EXPORT)
+    @GetMapping(value = "/v1/members", params = "fields")
+    public Callable<List<Map<String, Object>>> searchMemberFieldsV1(MemberSearchCondition condition,
+                                                                    @RequestParam List<String> fields) {
+        Set<MemberField> selected;
+        try {
+            selected = MemberField.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return () -> memberJpaRepository.searchFields(condition, selected);
+    }
+
+    /**
+     * http://localhost:8080/v2/members?size=5&page=2
+     */
+    @Bulkhead(BulkheadType.SEARCH)
+    @GetMapping("/v2/members")
+    public Callable<Page<MemberTeamDto>> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+        return () -> memberRepository.searchPageSimple(condition, pageable);
+    }
+
+    @Bulkhead(BulkheadType.SEARCH)
+    @GetMapping("/v3/members")
+    public Callable<Page<MemberTeamDto>> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+        return () -> memberRepository.searchPageComplex(condition, pageable);
+    }
+
+    /**
+     * count 없이 다음 페이지 여부만 (hasNext)
+     * http://localhost:8080/v4/members?size=20&page=0
+     */
+    @Bulkhead(BulkheadType.SEARCH)
+    @GetMapping("/v4/members")
+    public Callable<Slice<MemberTeamDto>> searchMemberV4(MemberSearchCondition condition, Pageable pageable) {
+        return () -> memberRepository.searchSlice(condition, pageable);
+    }
+
+    /**
+     * totalElements가 추정치일 수 있다 (응답의 totalExact 확인)
+     */
+    @Bulkhead(BulkheadType.SEARCH)
+    @GetMapping("/v5/members")
+    public Callable<EstimatedPage<MemberTeamDto>> searchMemberV5(MemberSearchCondition condition, Pageable pageable) {
+        return () -> memberRepository.searchPageApproximate(condition, pageable);
     }
 
 }
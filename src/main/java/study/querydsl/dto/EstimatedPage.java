@@ -0,0 +1,24 @@
+package study.querydsl.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * totalElements가 정확한 값인지(totalExact) 응답에 같이 내려준다
+ * false면 테이블 통계나 캐시된 count로 추정한 값
+ */
+public class EstimatedPage<T> extends PageImpl<T> {
+
+    private final boolean totalExact;
+
+    public EstimatedPage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+        super(content, pageable, total);
+        this.totalExact = totalExact;
+    }
+
+    public boolean isTotalExact() {
+        return totalExact;
+    }
+}
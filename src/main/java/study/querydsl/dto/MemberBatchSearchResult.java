@@ -0,0 +1,15 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * batch-search 결과 (index: 요청한 조건 목록에서의 순서)
+ */
+@Data
+public class MemberBatchSearchResult {
+
+    private final int index;
+    private final List<MemberTeamDto> content;
+}
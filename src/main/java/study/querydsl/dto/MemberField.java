@@ -0,0 +1,40 @@
+package study.querydsl.dto;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * /v1/members?fields=username,age 처럼 클라이언트가 고를 수 있는 MemberTeamDto 컬럼
+ */
+public enum MemberField {
+
+    MEMBER_ID("memberId"),
+    USERNAME("username"),
+    AGE("age"),
+    TEAM_ID("teamId"),
+    TEAM_NAME("teamName");
+
+    private final String fieldName;
+
+    MemberField(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    public static Set<MemberField> parse(List<String> fieldNames) {
+        Set<MemberField> fields = EnumSet.noneOf(MemberField.class);
+        for (String fieldName : fieldNames) {
+            MemberField field = Arrays.stream(values())
+                    .filter(it -> it.fieldName.equals(fieldName.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("unknown field: " + fieldName));
+            fields.add(field);
+        }
+        return fields.isEmpty() ? EnumSet.allOf(MemberField.class) : fields;
+    }
+}
@@ -1,6 +1,9 @@
 package study.querydsl.dto;
 
 import lombok.Data;
+import org.springframework.util.StringUtils;
+
+import java.util.StringJoiner;
 
 @Data
 public class MemberSearchCondition {
@@ -10,4 +13,14 @@ public class MemberSearchCondition {
     private String teamName;
     private Integer ageGoe; //크거나 같거나
     private Integer ageLoe; //작거나 같거나
+
+    //값이 있는 조건 이름만 (ex: teamName+ageGoe, 없으면 none) > 값과 상관없이 같은 모양의 쿼리끼리 묶어서 보기 위함
+    public String shape() {
+        StringJoiner shape = new StringJoiner("+");
+        if (StringUtils.hasText(username)) shape.add("username");
+        if (StringUtils.hasText(teamName)) shape.add("teamName");
+        if (ageGoe != null) shape.add("ageGoe");
+        if (ageLoe != null) shape.add("ageLoe");
+        return shape.length() > 0 ? shape.toString() : "none";
+    }
 }
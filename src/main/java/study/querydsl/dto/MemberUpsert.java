@@ -0,0 +1,18 @@
+package study.querydsl.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * username 기준 insert or update 한 건 (MemberUpsertRepository)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberUpsert {
+
+    private String username;
+    private int age;
+    private Long teamId; //null 이면 팀 없음
+}
@@ -0,0 +1,29 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * 엔티티 종류별 버전 (노드간 캐시 무효화)
+ * 쓰기 트랜잭션이 같은 트랜잭션 안에서 올리고, 각 노드가 주기적으로 읽어서 바뀐 종류의 로컬 캐시를 비운다 (CacheVersionPoller)
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@Table(name = "cache_version")
+public class CacheVersion {
+
+    @Id
+    @Column(name = "entity_type")
+    private String entityType; //Member, Team
+
+    private long version;
+}
@@ -1,10 +1,13 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import org.hibernate.Hibernate;
 
 import javax.persistence.*;
+import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_member_username", columnList = "username")) //username 조회, upsert(MERGE ... ON username), 중복은 허용
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
@@ -38,6 +41,15 @@ public class Member {
 
     private void changeTeam(Team team) { //양방향 연관 메서드
         this.team = team;
-        team.getMembers().add(this);
+        List<Member> members = team.getMembers();
+        if (!Hibernate.isInitialized(members)) {
+            //DB에서 읽은 팀의 members가 아직 로딩 전 > contains()를 부르면 팀 회원 전체를 로딩한다
+            //mappedBy(inverse) 컬렉션의 add는 로딩 없이 대기열에 쌓였다가, 실제로 읽을 때 합쳐지고 flush 후 비워진다
+            members.add(this);
+            return;
+        }
+        if (!members.contains(this)) {
+            members.add(this);
+        }
     }
 }
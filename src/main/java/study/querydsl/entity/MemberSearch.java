@@ -0,0 +1,45 @@
+package study.querydsl.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+/**
+ * 검색 전용 비정규화 테이블 (member + team.name)
+ * 검색할 때 member > team 조인을 안하려고 만든 읽기 전용 엔티티
+ * 쓰기는 MemberSearchSyncListener(엔티티 변경), MemberBulkOperations(벌크 연산)에서만 한다
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@Table(name = "member_search", indexes = {
+        @Index(name = "idx_member_search_username", columnList = "username"),
+        @Index(name = "idx_member_search_team_name_age", columnList = "team_name, age"), //teamName + ageGoe/ageLoe
+        @Index(name = "idx_member_search_age", columnList = "age"),
+        @Index(name = "idx_member_search_team_id", columnList = "team_id") //팀 이름 변경 반영용
+})
+public class MemberSearch {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private String username;
+    private int age;
+
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Column(name = "team_name")
+    private String teamName;
+}
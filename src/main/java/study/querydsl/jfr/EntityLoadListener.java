@@ -0,0 +1,35 @@
+package study.querydsl.jfr;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 쿼리 하나가 로딩한 엔티티 수 (QueryExecutionEvent의 Entities Loaded)
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityLoadListener implements PostLoadEventListener {
+
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    public void register() {
+        emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        QueryMeasurement.entityLoaded();
+    }
+}
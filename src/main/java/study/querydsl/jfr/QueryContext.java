@@ -0,0 +1,29 @@
+package study.querydsl.jfr;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 지금 실행 중인 리포지토리 메소드와 검색 조건 모양 (QueryContextAspect가 설정)
+ */
+@Getter
+@RequiredArgsConstructor
+public class QueryContext {
+
+    private static final ThreadLocal<QueryContext> CURRENT = new ThreadLocal<>();
+
+    private final String repositoryMethod;
+    private final String conditionShape;
+
+    public static QueryContext get() {
+        return CURRENT.get();
+    }
+
+    static void set(QueryContext context) {
+        if (context == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(context);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package study.querydsl.jfr;
+
+import jdk.jfr.EventType;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+
+/**
+ * 리포지토리 메소드 이름, 검색 조건 모양을 QueryContext에 넣어둔다
+ * 안쪽 호출이 더 구체적이므로 덮어쓰고, 끝나면 바깥 값으로 되돌린다
+ * MemberJpaSearch는 MemberRepositoryImpl이 위임하는 구현이라 이름을 덮어쓰지 않도록 제외
+ */
+@Aspect
+@Component
+public class QueryContextAspect {
+
+    private static final EventType EVENT_TYPE = EventType.getEventType(QueryExecutionEvent.class);
+
+    @Around("execution(public * study.querydsl.repository..*Repository*.*(..)) && !within(study.querydsl.repository.MemberJpaSearch)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!EVENT_TYPE.isEnabled()) { //이벤트를 켠 기록이 없으면 아무것도 안함
+            return joinPoint.proceed();
+        }
+
+        QueryContext previous = QueryContext.get();
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        QueryContext.set(new QueryContext(method, shapeOf(joinPoint.getArgs())));
+        try {
+            return joinPoint.proceed();
+        } finally {
+            QueryContext.set(previous);
+        }
+    }
+
+    private String shapeOf(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition) {
+                return ((MemberSearchCondition) arg).shape();
+            }
+        }
+        return null;
+    }
+}
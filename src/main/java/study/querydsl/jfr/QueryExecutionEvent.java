@@ -0,0 +1,61 @@
+package study.querydsl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+
+/**
+ * Querydsl 쿼리 한 번 실행 (fetch, fetchOne, fetchCount, fetchResults, update/delete execute)
+ * JFR의 JDBC 이벤트만으로는 어느 리포지토리 메소드의 쿼리인지 알 수 없어서 따로 남긴다
+ * 설정: src/main/resources/jfr/querydsl.jfc
+ */
+@Name(QueryExecutionEvent.NAME)
+@Label("Querydsl Query Execution")
+@Category({"Querydsl"})
+@Description("리포지토리 메소드별 Querydsl 쿼리 실행 (SQL 시간 / 결과 변환 시간)")
+@StackTrace(false)
+@Threshold("10 ms")
+public class QueryExecutionEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "study.querydsl.QueryExecution";
+
+    @Label("Repository Method")
+    String repositoryMethod;
+
+    @Label("Condition Shape")
+    @Description("값이 있는 검색 조건 필드 (ex: teamName+ageGoe)")
+    String conditionShape;
+
+    @Label("Operation")
+    String operation;
+
+    @Label("JPQL")
+    String jpql;
+
+    @Label("Rows")
+    @Description("결과 row 수 (update/delete는 변경된 row 수)")
+    long rowCount;
+
+    @Label("SQL Time")
+    @Description("JDBC 실행 + ResultSet 읽기")
+    @Timespan(Timespan.NANOSECONDS)
+    long sqlTime;
+
+    @Label("Hydration Time")
+    @Description("전체 시간 - SQL 시간 (엔티티/DTO 변환, 영속성 컨텍스트)")
+    @Timespan(Timespan.NANOSECONDS)
+    long hydrationTime;
+
+    @Label("Statements")
+    int statementCount;
+
+    @Label("Entities Loaded")
+    int entitiesLoaded;
+
+    @Label("Failed")
+    boolean failed;
+}
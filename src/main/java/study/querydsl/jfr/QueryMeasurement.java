@@ -0,0 +1,44 @@
+package study.querydsl.jfr;
+
+/**
+ * 스레드별 누적 카운터 (SQL 시간, statement 수, 로딩한 엔티티 수)
+ * 기록 중인 쿼리가 있을 때(depth > 0)만 쌓는다 > 시작/끝 값의 차이가 그 쿼리 몫
+ */
+final class QueryMeasurement {
+
+    private static final ThreadLocal<QueryMeasurement> CURRENT = ThreadLocal.withInitial(QueryMeasurement::new);
+
+    private int depth;
+    long sqlNanos;
+    int statements;
+    int entities;
+
+    static QueryMeasurement current() {
+        return CURRENT.get();
+    }
+
+    static void sql(long nanos, boolean statement) {
+        QueryMeasurement measurement = CURRENT.get();
+        if (measurement.depth > 0) {
+            measurement.sqlNanos += nanos;
+            if (statement) {
+                measurement.statements++;
+            }
+        }
+    }
+
+    static void entityLoaded() {
+        QueryMeasurement measurement = CURRENT.get();
+        if (measurement.depth > 0) {
+            measurement.entities++;
+        }
+    }
+
+    void enter() {
+        depth++;
+    }
+
+    void exit() {
+        depth--;
+    }
+}
@@ -0,0 +1,51 @@
+package study.querydsl.jfr;
+
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * 쿼리 실행을 QueryExecutionEvent로 감싼다
+ * 이벤트가 꺼져 있으면(JFR 기록 중이 아니면) 바로 실행 > 비용 거의 없음
+ */
+abstract class QueryRecorder {
+
+    static <R> R record(String operation, Object query, Supplier<R> action, ToLongFunction<R> rowCount) {
+        QueryExecutionEvent event = new QueryExecutionEvent();
+        if (!event.isEnabled()) {
+            return action.get();
+        }
+
+        QueryMeasurement measurement = QueryMeasurement.current();
+        long sqlNanos = measurement.sqlNanos;
+        int statements = measurement.statements;
+        int entities = measurement.entities;
+        long start = System.nanoTime();
+        measurement.enter();
+        event.begin();
+        R result = null;
+        boolean failed = true;
+        try {
+            result = action.get();
+            failed = false;
+            return result;
+        } finally {
+            event.end();
+            measurement.exit();
+            if (event.shouldCommit()) { //threshold 미만이면 여기서 끝 (JPQL 직렬화도 안함)
+                long elapsed = System.nanoTime() - start;
+                QueryContext context = QueryContext.get();
+                event.repositoryMethod = context != null ? context.getRepositoryMethod() : null;
+                event.conditionShape = context != null ? context.getConditionShape() : null;
+                event.operation = operation;
+                event.jpql = query.toString(); //Querydsl toString > JPQL
+                event.rowCount = failed ? -1 : rowCount.applyAsLong(result);
+                event.sqlTime = measurement.sqlNanos - sqlNanos;
+                event.hydrationTime = Math.max(0, elapsed - event.sqlTime);
+                event.statementCount = measurement.statements - statements;
+                event.entitiesLoaded = measurement.entities - entities;
+                event.failed = failed;
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.jfr;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.impl.JPADeleteClause;
+
+import javax.persistence.EntityManager;
+
+public class RecordingJPADeleteClause extends JPADeleteClause {
+
+    public RecordingJPADeleteClause(EntityManager em, EntityPath<?> entity) {
+        super(em, entity);
+    }
+
+    @Override
+    public long execute() {
+        return QueryRecorder.record("delete", this, super::execute, Long::longValue);
+    }
+}
@@ -0,0 +1,52 @@
+package study.querydsl.jfr;
+
+import com.querydsl.core.QueryMetadata;
+import com.querydsl.core.QueryResults;
+import com.querydsl.jpa.JPQLTemplates;
+import com.querydsl.jpa.impl.JPAQuery;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+/**
+ * 실행할 때마다 QueryExecutionEvent를 남기는 JPAQuery
+ */
+public class RecordingJPAQuery<T> extends JPAQuery<T> {
+
+    public RecordingJPAQuery(EntityManager em) {
+        super(em);
+    }
+
+    public RecordingJPAQuery(EntityManager em, JPQLTemplates templates, QueryMetadata metadata) {
+        super(em, templates, metadata);
+    }
+
+    @Override
+    public List<T> fetch() {
+        return QueryRecorder.record("fetch", this, super::fetch, List::size);
+    }
+
+    @Override
+    public T fetchOne() {
+        return QueryRecorder.record("fetchOne", this, super::fetchOne, result -> result != null ? 1 : 0);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public long fetchCount() {
+        return QueryRecorder.record("fetchCount", this, super::fetchCount, count -> 1);
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public QueryResults<T> fetchResults() {
+        return QueryRecorder.record("fetchResults", this, super::fetchResults, results -> results.getResults().size());
+    }
+
+    @Override
+    public RecordingJPAQuery<T> clone(EntityManager entityManager, JPQLTemplates templates) {
+        RecordingJPAQuery<T> q = new RecordingJPAQuery<>(entityManager, templates, getMetadata().clone());
+        q.clone(this);
+        return q;
+    }
+}
@@ -0,0 +1,37 @@
+package study.querydsl.jfr;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+
+import javax.persistence.EntityManager;
+
+/**
+ * select/selectFrom/update/delete 모두 Recording* 쿼리를 만든다 > 모든 실행이 JFR 이벤트로 남는다
+ */
+public class RecordingJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager em;
+
+    public RecordingJPAQueryFactory(EntityManager em) {
+        super(em);
+        this.em = em;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new RecordingJPAQuery<Void>(em);
+    }
+
+    @Override
+    public JPAUpdateClause update(EntityPath<?> path) {
+        return new RecordingJPAUpdateClause(em, path);
+    }
+
+    @Override
+    public JPADeleteClause delete(EntityPath<?> path) {
+        return new RecordingJPADeleteClause(em, path);
+    }
+}
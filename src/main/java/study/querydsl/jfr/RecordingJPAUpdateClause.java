@@ -0,0 +1,18 @@
+package study.querydsl.jfr;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+
+import javax.persistence.EntityManager;
+
+public class RecordingJPAUpdateClause extends JPAUpdateClause {
+
+    public RecordingJPAUpdateClause(EntityManager em, EntityPath<?> entity) {
+        super(em, entity);
+    }
+
+    @Override
+    public long execute() {
+        return QueryRecorder.record("update", this, super::execute, Long::longValue);
+    }
+}
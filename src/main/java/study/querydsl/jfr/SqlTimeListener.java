@@ -0,0 +1,25 @@
+package study.querydsl.jfr;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy로 JDBC 실행 시간, ResultSet next() 시간을 스레드별로 모은다 (QueryExecutionEvent의 SQL 시간)
+ */
+@Component
+public class SqlTimeListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        QueryMeasurement.sql(timeElapsedNanos, true);
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        QueryMeasurement.sql(timeElapsedNanos, false);
+    }
+}
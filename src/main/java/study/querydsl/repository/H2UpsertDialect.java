@@ -0,0 +1,28 @@
+package study.querydsl.repository;
+
+import org.springframework.stereotype.Component;
+
+import java.util.StringJoiner;
+
+/**
+ * H2: MERGE INTO ... USING (VALUES ...) ON username
+ * MERGE INTO ... KEY(username) 는 member_id까지 매번 덮어써서 (새 시퀀스 값) 기존 회원의 id가 바뀐다 > USING 형태 사용
+ * 새 회원 id는 hibernate_sequence에서 (@GeneratedValue 기본 설정: increment 1 > Hibernate가 나눠주는 id와 겹치지 않는다)
+ */
+@Component
+public class H2UpsertDialect implements UpsertDialect {
+
+    @Override
+    public String upsertMembersByUsername(int rows) {
+        StringJoiner values = new StringJoiner(", ");
+        for (int i = 0; i < rows; i++) {
+            values.add("(cast(? as varchar(255)), cast(? as integer), cast(? as bigint))"); //전부 null인 컬럼도 타입이 정해지게
+        }
+        return "merge into member m" +
+                " using (values " + values + ") s(username, age, team_id)" +
+                " on m.username = s.username" +
+                " when matched then update set m.age = s.age, m.team_id = s.team_id" +
+                " when not matched then insert (member_id, username, age, team_id)" +
+                " values (next value for hibernate_sequence, s.username, s.age, s.team_id)";
+    }
+}
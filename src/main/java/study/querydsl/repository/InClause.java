@@ -0,0 +1,25 @@
+package study.querydsl.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * 여러 키 조회를 IN 절 몇 개로 나눈다
+ * hibernate.query.in_clause_parameter_padding=true 이면 IN 파라미터 개수를 2의 거듭제곱으로 맞춰서
+ * 같은 모양의 SQL이 재사용된다 (statement/plan 캐시) > 한 번에 보내는 개수도 2의 거듭제곱으로 잡는다
+ */
+abstract class InClause {
+
+    static final int MAX_SIZE = 512;
+
+    static <T> List<List<T>> chunks(Collection<T> keys) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(keys));
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += MAX_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + MAX_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,123 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.CacheVersions;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static study.querydsl.entity.QMember.*;
+
+/**
+ * member 벌크 update/delete (Querydsl)
+ * 벌크 연산은 영속성 컨텍스트와 엔티티 이벤트를 건너뛴다 > 대상 id를 먼저 뽑아두고 (select ... for update), 실행 후
+ * - member_search를 다시 맞춘다
+ * - 영속성 컨텍스트에서 대상 회원만 준영속으로 (em.clear() 대신) > 다음 조회 때 DB 값으로 다시 로딩된다
+ * - cache_version을 올린다 (다른 노드 캐시)
+ * 벌크 statement는 호출한 쪽의 조건(where) 그대로 한 번 > 뽑은 id는 잠겨 있어서 그 사이에 바뀌지 않는다
+ * 그 사이 새로 들어온 행까지 바뀌었으면 (건수가 다름) member_search 전체를 다시 채우고 회원을 전부 준영속으로
+ * 조건(where)은 member 기준 (벌크 JPQL은 조인을 못한다 > member.team.name 같은 경로 대신 member.team.id)
+ * 주의: 이미 로딩된 Team.members 컬렉션 안의 회원 객체는 그대로다 (컬렉션이 예전 객체를 들고 있다)
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberBulkOperations {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+
+    //ex) update(member.age.lt(28), clause -> clause.set(member.age, member.age.add(1)))
+    @Transactional
+    public long update(Predicate where, Consumer<JPAUpdateClause> set) {
+        List<Long> ids = targetIds(where);
+        JPAUpdateClause clause = queryFactory.update(member).where(where);
+        set.accept(clause);
+        long count = clause.execute();
+        synchronize(ids, count);
+        return count;
+    }
+
+    @Transactional
+    public long delete(Predicate where) {
+        List<Long> ids = targetIds(where);
+        long count = queryFactory.delete(member).where(where).execute();
+        synchronize(ids, count); //member에 없으니 member_search에서도 지워진다
+        return count;
+    }
+
+    private List<Long> targetIds(Predicate where) {
+        em.flush(); //준영속으로 만들 엔티티에 아직 안 나간 변경이 있으면 잃어버린다 > 먼저 반영
+        return queryFactory
+                .select(member.id)
+                .from(member)
+                .where(where)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .fetch();
+    }
+
+    private void synchronize(List<Long> ids, long count) {
+        if (count == ids.size()) {
+            MemberSearchSynchronizer.refresh(em, ids);
+            evict(ids);
+        } else {
+            MemberSearchSynchronizer.rebuild(em);
+            evictAll();
+        }
+        CacheVersions.bump(em, CacheVersions.MEMBER); //벌크 연산은 엔티티 이벤트가 없다 > 직접
+    }
+
+    private void evictAll() {
+        PersistenceContext persistenceContext = em.unwrap(SessionImplementor.class).getPersistenceContextInternal();
+        List<Object> managed = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : persistenceContext.reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member) {
+                managed.add(entry.getKey());
+            }
+        }
+        managed.forEach(em::detach);
+    }
+
+    //대상 id와 영속성 컨텍스트 중 작은 쪽을 돈다
+    private void evict(List<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        PersistenceContext persistenceContext = session.getPersistenceContextInternal();
+        List<Object> managed = new ArrayList<>();
+
+        if (ids.size() <= persistenceContext.getNumberOfManagedEntities()) {
+            EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+            for (Long id : ids) {
+                Object entity = persistenceContext.getEntity(session.generateEntityKey(id, persister));
+                if (entity != null) {
+                    managed.add(entity);
+                }
+            }
+        } else {
+            Set<Long> targets = new HashSet<>(ids);
+            for (Map.Entry<Object, EntityEntry> entry : persistenceContext.reentrantSafeEntityEntries()) {
+                if (entry.getKey() instanceof Member && targets.contains(((Member) entry.getKey()).getId())) {
+                    managed.add(entry.getKey());
+                }
+            }
+        }
+
+        for (Object entity : managed) {
+            em.detach(entity);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package study.querydsl.repository;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * 대략적인 totalCount (searchPageApproximate)
+ * - 조건이 없으면 H2 테이블 통계(ROW_COUNT_ESTIMATE)
+ * - 조건이 있으면 조건별로 캐시한 count, ttl이 지나면 일단 예전 값을 주고 백그라운드에서 다시 센다
+ * - 처음 보는 조건만 바로 센다 (이때는 정확한 값)
+ */
+@Component
+@ConfigurationProperties(prefix = "member.count-estimate")
+public class MemberCountEstimator {
+
+    @Getter @Setter
+    private Duration ttl = Duration.ofSeconds(30);
+    @Getter @Setter
+    private int maxEntries = 1000;
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnly;
+    private final Map<MemberSearchCondition, CachedCount> counts = new ConcurrentHashMap<>();
+    private final ExecutorService refresher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-count-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MemberCountEstimator(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    public Estimate estimate(MemberSearchCondition condition, LongSupplier exactCount) {
+        if (isEmpty(condition)) {
+            return new Estimate(tableRowEstimate(), false);
+        }
+
+        MemberSearchCondition key = copyOf(condition); //검색 조건 객체는 바뀔 수 있으니 복사해서 키로 사용
+        CachedCount cached = counts.get(key);
+        if (cached == null) {
+            if (counts.size() >= maxEntries) {
+                counts.clear(); //조건 조합이 너무 많아지면 그냥 비운다
+            }
+            long total = exactCount.getAsLong();
+            counts.put(key, new CachedCount(total));
+            return new Estimate(total, true);
+        }
+        if (cached.isStale(ttl) && cached.startRefresh()) {
+            refresher.execute(() -> {
+                try {
+                    Long total = readOnly.execute(status -> exactCount.getAsLong());
+                    counts.put(key, new CachedCount(total));
+                } finally {
+                    cached.endRefresh();
+                }
+            });
+        }
+        return new Estimate(cached.total, false);
+    }
+
+    //데이터가 크게 바뀌었을 때 (대량 입력 등)
+    public void invalidate() {
+        counts.clear();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private long tableRowEstimate() {
+        Number estimate = (Number) readOnly.execute(status -> em.createNativeQuery(
+                        "select ROW_COUNT_ESTIMATE from INFORMATION_SCHEMA.TABLES where TABLE_NAME = 'MEMBER'")
+                .getSingleResult());
+        return estimate != null ? estimate.longValue() : 0;
+    }
+
+    private static boolean isEmpty(MemberSearchCondition condition) {
+        return !hasText(condition.getUsername()) && !hasText(condition.getTeamName())
+                && condition.getAgeGoe() == null && condition.getAgeLoe() == null;
+    }
+
+    private static MemberSearchCondition copyOf(MemberSearchCondition condition) {
+        MemberSearchCondition copy = new MemberSearchCondition();
+        copy.setUsername(condition.getUsername());
+        copy.setTeamName(condition.getTeamName());
+        copy.setAgeGoe(condition.getAgeGoe());
+        copy.setAgeLoe(condition.getAgeLoe());
+        return copy;
+    }
+
+    public static class Estimate {
+        private final long total;
+        private final boolean exact;
+
+        public Estimate(long total, boolean exact) {
+            this.total = total;
+            this.exact = exact;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public boolean isExact() {
+            return exact;
+        }
+    }
+
+    private static class CachedCount {
+        private final long total;
+        private final long computedAt = System.nanoTime();
+        private volatile boolean refreshing;
+
+        private CachedCount(long total) {
+            this.total = total;
+        }
+
+        private boolean isStale(Duration ttl) {
+            return System.nanoTime() - computedAt > ttl.toNanos();
+        }
+
+        private synchronized boolean startRefresh() {
+            if (refreshing) {
+                return false;
+            }
+            refreshing = true;
+            return true;
+        }
+
+        private void endRefresh() {
+            refreshing = false;
+        }
+    }
+}
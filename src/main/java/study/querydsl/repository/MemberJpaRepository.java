@@ -1,12 +1,20 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Projections;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
+import study.querydsl.budget.QueryBudgets;
+import study.querydsl.dto.MemberField;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberDto;
@@ -16,25 +24,38 @@ import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
 
+/**
+ * 조회 메소드는 readOnly 트랜잭션 > FlushMode.MANUAL, 읽기 전용 세션/커넥션 (스냅샷, dirty checking 없음)
+ * 일반 finder(findAll, findByUsername...)는 쓰기 트랜잭션 안에서 불리면 돌려준 엔티티를 수정할 수 있어야 하므로 힌트 없음
+ * 읽기 전용 엔티티가 필요하면 ...ReadOnly 메소드나 검색(searchMember)을 쓴다 > 스냅샷을 안 남기고, 수정해도 반영되지 않는다
+ */
 @Repository
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final QueryBudgets queryBudgets; //검색 쿼리 제한시간, 최대 row 수
 
 //    public MemberJpaRepository(EntityManager em) {
 //        this.em = em;
 //        this.queryFactory = new JPAQueryFactory(em); //스프링 빈으로 미리 등록해버리면 편하다!!!
 //    }
 
+    @Transactional
     public void save(Member member) {
         em.persist(member);
     }
@@ -44,6 +65,11 @@ public class MemberJpaRepository {
         return Optional.ofNullable(findMember);
     }
 
+    //id 여러 개를 IN 절 몇 번으로 (입력 순서대로, 없는 id는 빠진다)
+    public Map<Long, Member> findAllByIds(Collection<Long> ids) {
+        return MemberLookups.findAllByIds(queryFactory, ids);
+    }
+
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class)
                 .getResultList();
@@ -55,12 +81,25 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    //수정하지 않을 대량 조회용 (쓰기 트랜잭션 안이어도 스냅샷 없이, 변경은 flush에서 무시된다)
+    public List<Member> findAllReadOnly() {
+        return queryFactory
+                .selectFrom(member)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .fetch();
+    }
+
     public List<Member> findByUsername(String username) {
         return em.createQuery("select m from Member m where m.username = :username", Member.class)
                 .setParameter("username", username)
                 .getResultList();
     }
 
+    //username 여러 개를 IN 절 몇 번으로 (입력 순서대로, 없는 username은 빈 리스트)
+    public Map<String, List<Member>> findAllByUsernames(Collection<String> usernames) {
+        return MemberLookups.findAllByUsernames(queryFactory, usernames);
+    }
+
     public List<Member> findByUsername_Querydsl(String username) {
         return queryFactory
                 .selectFrom(member)
@@ -88,7 +127,7 @@ public class MemberJpaRepository {
             builder.and(member.age.loe(condition.getAgeLoe()));
         }
 
-        return queryFactory
+        return queryBudgets.fetch(queryFactory //조건이 없어도 최대 row 수까지만
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -98,15 +137,14 @@ public class MemberJpaRepository {
                 ))
                 .from(member)
                 .leftJoin(member.team, team) //QTeam.team > static import
-                .where(builder)
-                .fetch();
+                .where(builder));
     }
 
     /**
      * 이번엔 동적쿼리를 Where절을 사용해보자
      */
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
+        return queryBudgets.fetch(queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -120,12 +158,57 @@ public class MemberJpaRepository {
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
+                        ageLoe(condition.getAgeLoe())));
     }
+    /**
+     * 요청한 필드만 select (fields=username,age)
+     * team 컬럼을 안 쓰고 teamName 조건도 없으면 team 조인 자체를 뺀다
+     * teamId는 member의 FK 컬럼(member.team.id)이라 조인이 필요없다
+     */
+    public List<Map<String, Object>> searchFields(MemberSearchCondition condition, Set<MemberField> fields) {
+        MemberField[] selected = fields.toArray(new MemberField[0]);
+        Expression<?>[] projection = new Expression<?>[selected.length];
+        for (int i = 0; i < selected.length; i++) {
+            projection[i] = expressionOf(selected[i]);
+        }
+
+        JPAQuery<Tuple> query = queryFactory
+                .select(Projections.tuple(projection))
+                .from(member);
+        if (fields.contains(MemberField.TEAM_NAME) || hasText(condition.getTeamName())) {
+            query.leftJoin(member.team, team);
+        }
+        query.where(
+                usernameEq(condition.getUsername()),
+                teamNameEq(condition.getTeamName()),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()));
+
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Tuple tuple : queryBudgets.fetch(query)) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (int i = 0; i < selected.length; i++) {
+                row.put(selected[i].getFieldName(), tuple.get(i, Object.class));
+            }
+            result.add(row);
+        }
+        return result;
+    }
+
+    private Expression<?> expressionOf(MemberField field) {
+        switch (field) {
+            case MEMBER_ID: return member.id;
+            case USERNAME: return member.username;
+            case AGE: return member.age;
+            case TEAM_ID: return member.team.id; //FK 컬럼 > 조인 없음
+            case TEAM_NAME: return team.name;
+            default: throw new IllegalArgumentException(field.name());
+        }
+    }
+
     //DTO말고 Entity로도 조회가 가능하다 (메소드를 제사용 할 수 있음)
     public List<Member> searchMember(MemberSearchCondition condition) {
-        return queryFactory
+        return queryBudgets.fetch(queryFactory
                 .selectFrom(member)
                 .from(member)
                 .leftJoin(member.team, team) //QTeam.team > static import
@@ -134,7 +217,7 @@ public class MemberJpaRepository {
                         teamNameEq(condition.getTeamName()),
                         ageBetween(condition.getAgeLoe(), condition.getAgeGoe()) //이렇게 함수 조립도 가능!! (위에 usernameEq, teamNameEq역시 다 묶어서 한번에 가능) > null체크만 조심하자!
                 )
-                .fetch();
+                .setHint(QueryHints.HINT_READONLY, true));
     }
 
     private BooleanExpression ageBetween(int ageLoe, int ageGoe) { //함수 조립하깅
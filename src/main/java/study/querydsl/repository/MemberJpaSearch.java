@@ -0,0 +1,230 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.budget.QueryBudgets;
+import study.querydsl.dto.EstimatedPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.jfr.RecordingJPAQueryFactory;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 단일 DB(JPA) 검색 구현 > 샤딩이 꺼져 있으면 MemberRepositoryImpl이 이쪽으로 보낸다
+ */
+@Component
+@Transactional(readOnly = true) //DTO 조회만 있으므로 FlushMode.MANUAL + 읽기 전용 커넥션
+public class MemberJpaSearch implements MemberRepositoryCustom {
+
+    private final JPAQueryFactory queryFactory;
+    private final QueryBudgets queryBudgets;
+    private final MemberCountEstimator countEstimator;
+
+    public MemberJpaSearch(EntityManager em, QueryBudgets queryBudgets, MemberCountEstimator countEstimator) {
+        this.queryFactory = new RecordingJPAQueryFactory(em);
+        this.queryBudgets = queryBudgets;
+        this.countEstimator = countEstimator;
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return queryBudgets.fetch(queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team) //QTeam.team > static import
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())));
+    }
+
+
+    /**
+     * (querydsl 제공) 자동으로 totalCount쿼리를 날린다. (쿼리 2번 발생)
+     * 데이터가 별로 없을 경우 사용하자
+     */
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        QueryResults<MemberTeamDto> results = queryBudgets.apply(queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team) //QTeam.team > static import
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .offset(pageable.getOffset())
+                .limit(queryBudgets.pageSize(pageable.getPageSize())))
+                .fetchResults();
+
+        List<MemberTeamDto> content = results.getResults();
+        long total = results.getTotal();
+
+        return new PageImpl<>(content, pageable, total);
+
+    }
+
+    /**
+     * 내가 직접 totalCount 쿼리를 날린다.
+     * 데이터가 많을 때
+     */
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDto> content = queryBudgets.apply(queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team) //QTeam.team > static import
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .offset(pageable.getOffset())
+                .limit(queryBudgets.pageSize(pageable.getPageSize())))
+                .fetch();
+
+        long total = queryBudgets.apply(queryFactory
+                .select(member)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                ))
+                .fetchCount();
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+
+    /**
+     * count 쿼리 없이 pageSize + 1 개를 가져와서 다음 페이지가 있는지만 판단한다
+     * "더보기" 화면처럼 전체 개수가 필요없을 때
+     */
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        int pageSize = (int) queryBudgets.pageSize(pageable.getPageSize());
+        List<MemberTeamDto> content = queryBudgets.apply(contentQuery(condition)
+                .offset(pageable.getOffset())
+                .limit(pageSize + 1))
+                .fetch();
+
+        boolean hasNext = content.size() > pageSize;
+        if (hasNext) {
+            content = content.subList(0, pageSize);
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * totalCount를 추정치로 (MemberCountEstimator)
+     * 마지막 페이지임이 content로 확인되면 그때는 정확한 값을 준다
+     */
+    @Override
+    public EstimatedPage<MemberTeamDto> searchPageApproximate(MemberSearchCondition condition, Pageable pageable) {
+        int pageSize = (int) queryBudgets.pageSize(pageable.getPageSize());
+        List<MemberTeamDto> content = queryBudgets.apply(contentQuery(condition)
+                .offset(pageable.getOffset())
+                .limit(pageSize))
+                .fetch();
+
+        long seen = pageable.getOffset() + content.size();
+        if (content.size() < pageSize && (pageable.getOffset() == 0 || !content.isEmpty())) {
+            return new EstimatedPage<>(content, pageable, seen, true);
+        }
+        MemberCountEstimator.Estimate estimate = countEstimator.estimate(condition,
+                () -> queryBudgets.apply(countQuery(condition)).fetchCount());
+        return new EstimatedPage<>(content, pageable, Math.max(seen, estimate.getTotal()), estimate.isExact());
+    }
+
+    private JPAQuery<MemberTeamDto> contentQuery(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")
+                ))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()));
+    }
+
+    private JPAQuery<Member> countQuery(MemberSearchCondition condition) {
+        return queryFactory
+                .select(member)
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()));
+    }
+
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null; //값이 있으면 비교해서 값 반환, 없으면 null반환
+    }
+
+    private Predicate teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null ;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+}
@@ -0,0 +1,23 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 여러 건을 한 번에 조회 (키마다 findById, findByUsername 을 반복하지 않도록)
+ * 결과는 입력 순서대로
+ * DTO 조회는 member-snapshot이 켜져 있으면 스냅샷에서 (엔티티는 영속성 컨텍스트에 올려야 해서 DB로)
+ */
+public interface MemberLookupRepository {
+
+    Map<Long, Member> findAllByIds(Collection<Long> ids); //없는 id는 빠진다
+    Map<String, List<Member>> findAllByUsernames(Collection<String> usernames); //없는 username은 빈 리스트
+
+    Optional<MemberTeamDto> findDtoById(Long id);
+    List<MemberTeamDto> findDtosByUsername(String username); //member_id 순
+}
@@ -0,0 +1,81 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.jfr.RecordingJPAQueryFactory;
+import study.querydsl.snapshot.MemberSnapshotLookup;
+
+import javax.persistence.EntityManager;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+@Transactional(readOnly = true)
+public class MemberLookupRepositoryImpl implements MemberLookupRepository {
+
+    private final JPAQueryFactory queryFactory;
+    private final ObjectProvider<MemberSnapshotLookup> snapshotLookup; //member-snapshot.enabled=true 일 때만 빈이 있다
+
+    public MemberLookupRepositoryImpl(EntityManager em, ObjectProvider<MemberSnapshotLookup> snapshotLookup) {
+        this.queryFactory = new RecordingJPAQueryFactory(em);
+        this.snapshotLookup = snapshotLookup;
+    }
+
+    @Override
+    public Map<Long, Member> findAllByIds(Collection<Long> ids) {
+        return MemberLookups.findAllByIds(queryFactory, ids);
+    }
+
+    @Override
+    public Map<String, List<Member>> findAllByUsernames(Collection<String> usernames) {
+        return MemberLookups.findAllByUsernames(queryFactory, usernames);
+    }
+
+    //스냅샷에서 찾으면 커넥션을 잡지 않게 트랜잭션을 새로 열지 않는다
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<MemberTeamDto> findDtoById(Long id) {
+        MemberSnapshotLookup lookup = snapshotLookup.getIfAvailable();
+        if (lookup != null) {
+            return lookup.findById(id);
+        }
+        return Optional.ofNullable(selectDto()
+                .where(member.id.eq(id))
+                .fetchOne());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<MemberTeamDto> findDtosByUsername(String username) {
+        MemberSnapshotLookup lookup = snapshotLookup.getIfAvailable();
+        if (lookup != null) {
+            return lookup.findByUsername(username);
+        }
+        return selectDto()
+                .where(member.username.eq(username))
+                .orderBy(member.id.asc()) //스냅샷과 같은 순서
+                .fetch();
+    }
+
+    private JPAQuery<MemberTeamDto> selectDto() {
+        return queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team);
+    }
+}
@@ -0,0 +1,52 @@
+package study.querydsl.repository;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import study.querydsl.entity.Member;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * id, username 여러 개를 IN 절 몇 번으로 조회 (MemberJpaRepository, MemberLookupRepositoryImpl 공통)
+ */
+abstract class MemberLookups {
+
+    //입력 순서대로, 없는 id는 빠진다
+    static Map<Long, Member> findAllByIds(JPAQueryFactory queryFactory, Collection<Long> ids) {
+        Map<Long, Member> found = new HashMap<>();
+        for (List<Long> chunk : InClause.chunks(ids)) {
+            for (Member findMember : queryFactory.selectFrom(member).where(member.id.in(chunk)).fetch()) {
+                found.put(findMember.getId(), findMember);
+            }
+        }
+
+        Map<Long, Member> result = new LinkedHashMap<>();
+        for (Long id : ids) {
+            Member findMember = found.get(id);
+            if (findMember != null) {
+                result.put(id, findMember);
+            }
+        }
+        return result;
+    }
+
+    //입력 순서대로, 없는 username은 빈 리스트
+    static Map<String, List<Member>> findAllByUsernames(JPAQueryFactory queryFactory, Collection<String> usernames) {
+        Map<String, List<Member>> result = new LinkedHashMap<>();
+        for (String username : usernames) {
+            result.put(username, new ArrayList<>());
+        }
+        for (List<String> chunk : InClause.chunks(usernames)) {
+            for (Member findMember : queryFactory.selectFrom(member).where(member.username.in(chunk)).fetch()) {
+                result.get(findMember.getUsername()).add(findMember);
+            }
+        }
+        return result;
+    }
+}
@@ -4,9 +4,12 @@ import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.budget.QueryBudgets;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.jfr.RecordingJPAQueryFactory;
 
 import javax.persistence.EntityManager;
 import java.util.List;
@@ -20,17 +23,20 @@ import static study.querydsl.entity.QTeam.team;
  * (프로젝트가 커질 경우에도)
  */
 @Repository
+@Transactional(readOnly = true)
 public class MemberQueryRepository {
 
 
     private final JPAQueryFactory queryFactory;
+    private final QueryBudgets queryBudgets;
 
-    public MemberQueryRepository(EntityManager em) {
-        this.queryFactory = new JPAQueryFactory(em);
+    public MemberQueryRepository(EntityManager em, QueryBudgets queryBudgets) {
+        this.queryFactory = new RecordingJPAQueryFactory(em);
+        this.queryBudgets = queryBudgets;
     }
 
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
+        return queryBudgets.fetch(queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.username,
@@ -44,8 +50,7 @@ public class MemberQueryRepository {
                         usernameEq(condition.getUsername()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
+                        ageLoe(condition.getAgeLoe())));
     }
 
 
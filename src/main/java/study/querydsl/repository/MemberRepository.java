@@ -5,7 +5,8 @@ import study.querydsl.entity.Member;
 
 import java.util.List;
 
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom, MemberLookupRepository,
+        MemberUpsertRepository {
 
     //select m from Member m where m.username = ?
     List<Member> findByUsername(String username);
@@ -2,6 +2,8 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.EstimatedPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 
@@ -12,4 +14,6 @@ public interface MemberRepositoryCustom {
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable); //count 없이 다음 페이지 여부만
+    EstimatedPage<MemberTeamDto> searchPageApproximate(MemberSearchCondition condition, Pageable pageable); //추정 totalCount
 }
@@ -1,143 +1,57 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.QueryResults;
-import com.querydsl.core.types.Predicate;
-import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.EstimatedPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
-import study.querydsl.dto.QMemberTeamDto;
-import study.querydsl.entity.Member;
+import study.querydsl.shard.ShardedMemberRepository;
 
-import javax.persistence.EntityManager;
 import java.util.List;
 
-import static org.springframework.util.StringUtils.hasText;
-import static study.querydsl.entity.QMember.member;
-import static study.querydsl.entity.QTeam.team;
-
+/**
+ * 검색을 단일 DB(MemberJpaSearch) 또는 샤드(ShardedMemberRepository, sharding.enabled=true)로 보낸다
+ * 샤드로 갈 때 단일 DB 트랜잭션(커넥션)을 열지 않도록 여기에는 @Transactional을 두지 않는다
+ */
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
-    private final JPAQueryFactory queryFactory;
+    private final MemberJpaSearch jpaSearch;
+    private final ObjectProvider<ShardedMemberRepository> shardedRepository; //sharding.enabled=true 일 때만 빈이 있다
 
-    public MemberRepositoryImpl(EntityManager em) {
-        this.queryFactory = new JPAQueryFactory(em);
+    public MemberRepositoryImpl(MemberJpaSearch jpaSearch, ObjectProvider<ShardedMemberRepository> shardedRepository) {
+        this.jpaSearch = jpaSearch;
+        this.shardedRepository = shardedRepository;
     }
 
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team) //QTeam.team > static import
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe()))
-                .fetch();
+        return target().search(condition);
     }
 
-
-    /**
-     * (querydsl 제공) 자동으로 totalCount쿼리를 날린다. (쿼리 2번 발생)
-     * 데이터가 별로 없을 경우 사용하자
-     */
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team) //QTeam.team > static import
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
-
-        List<MemberTeamDto> content = results.getResults();
-        long total = results.getTotal();
-
-        return new PageImpl<>(content, pageable, total);
-
+        return target().searchPageSimple(condition, pageable);
     }
 
-    /**
-     * 내가 직접 totalCount 쿼리를 날린다.
-     * 데이터가 많을 때
-     */
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.username,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team) //QTeam.team > static import
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
-
-        long total = queryFactory
-                .select(member)
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(
-                        usernameEq(condition.getUsername()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetchCount();
-
-        return new PageImpl<>(content, pageable, total);
+        return target().searchPageComplex(condition, pageable);
     }
 
-
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null; //값이 있으면 비교해서 값 반환, 없으면 null반환
-    }
-
-    private Predicate teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null ;
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        return target().searchSlice(condition, pageable);
     }
 
-    private BooleanExpression ageGoe(Integer ageGoe) {
-        return ageGoe != null ? member.age.goe(ageGoe) : null;
-
+    @Override
+    public EstimatedPage<MemberTeamDto> searchPageApproximate(MemberSearchCondition condition, Pageable pageable) {
+        return target().searchPageApproximate(condition, pageable);
     }
 
-    private BooleanExpression ageLoe(Integer ageLoe) {
-        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    private MemberRepositoryCustom target() {
+        ShardedMemberRepository sharded = shardedRepository.getIfAvailable();
+        return sharded != null ? sharded : jpaSearch;
     }
-
 }
@@ -0,0 +1,40 @@
+package study.querydsl.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * member.search.projection-table=true 로 기동하면 member_search를 member, team에서 전체 다시 채운다
+ * 동기화 리스너는 이후의 변경만 반영하므로, 켜기 전부터 있던 회원이 검색에서 빠지지 않도록
+ * ApplicationRunner > readiness(트래픽) 전, warm-up보다 먼저
+ */
+@Slf4j
+@Component
+@Order(0)
+@ConditionalOnProperty(name = "member.search.projection-table", havingValue = "true")
+public class MemberSearchBackfill implements ApplicationRunner {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+
+    public MemberSearchBackfill(EntityManager em, PlatformTransactionManager transactionManager) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        Integer rows = transactionTemplate.execute(status -> MemberSearchSynchronizer.rebuild(em));
+        log.info("member_search backfilled: {} rows in {} ms", rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
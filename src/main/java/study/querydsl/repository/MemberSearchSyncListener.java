@@ -0,0 +1,171 @@
+package study.querydsl.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * Member, Team 변경을 member_search에 반영 (flush 시점, 같은 트랜잭션/커넥션)
+ * - Member insert/update > merge, delete > delete
+ *   이벤트마다 쓰지 않고 세션별로 모아두었다가 flush가 끝나면 한 번에 배치로 (FLUSH, AUTO_FLUSH 리스너)
+ * - Team 이름 변경 > 그 팀 회원 전부 team_name 변경 (팀 하나에 statement 하나라 바로)
+ * JPQL/Querydsl 벌크 연산은 이벤트가 안 나온다 > MemberBulkOperations 사용
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchSyncListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    private final EntityManagerFactory emf;
+    //flush가 중간에 실패해서 못 비운 세션은 닫히고 나면 GC와 함께 빠진다
+    private final Map<EventSource, Pending> pending = Collections.synchronizedMap(new WeakHashMap<>());
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+        registry.appendListeners(EventType.FLUSH, this); //기본 flush 리스너 다음에 불린다
+        registry.appendListeners(EventType.AUTO_FLUSH, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            pending(event.getSession()).upsert((Member) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member) {
+            pending(event.getSession()).upsert((Member) event.getEntity());
+        } else if (event.getEntity() instanceof Team && nameChanged(event)) {
+            Team team = (Team) event.getEntity();
+            event.getSession().doWork(connection -> MemberSearchSynchronizer.renameTeam(connection, team.getId(), team.getName()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            pending(event.getSession()).delete((Long) event.getId());
+        } else if (event.getEntity() instanceof Team) {
+            Long teamId = (Long) event.getId();
+            event.getSession().doWork(connection -> MemberSearchSynchronizer.removeTeam(connection, teamId));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        write(event.getSession());
+    }
+
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        write(event.getSession());
+    }
+
+    private Pending pending(EventSource session) {
+        return pending.computeIfAbsent(session, key -> new Pending());
+    }
+
+    private void write(EventSource session) {
+        Pending changes = pending.remove(session);
+        if (changes == null) {
+            return;
+        }
+        session.doWork(connection -> {
+            Map<Long, String> teamNames = new HashMap<>();
+            List<MemberSearchSynchronizer.Row> rows = new ArrayList<>();
+            for (Member member : changes.upserts.values()) {
+                Team team = member.getTeam();
+                Long teamId = team != null ? team.getId() : null; //프록시여도 id는 초기화 없이
+                String teamName = null;
+                if (team != null && Hibernate.isInitialized(team)) {
+                    teamName = team.getName();
+                } else if (team != null) {
+                    //flush 중에 프록시 초기화(엔티티 로딩)는 피하고 이름만 직접 읽는다 (팀마다 한 번)
+                    if (!teamNames.containsKey(teamId)) {
+                        teamNames.put(teamId, MemberSearchSynchronizer.teamName(connection, teamId));
+                    }
+                    teamName = teamNames.get(teamId);
+                }
+                rows.add(new MemberSearchSynchronizer.Row(member.getId(), member.getUsername(), member.getAge(), teamId, teamName));
+            }
+            MemberSearchSynchronizer.upsert(connection, rows);
+            MemberSearchSynchronizer.delete(connection, changes.deletes);
+        });
+    }
+
+    //세션 하나가 flush 한 번 동안 바꾼 회원 (쓰는 시점의 엔티티 값 = flush한 값)
+    private static class Pending {
+        private final Map<Long, Member> upserts = new LinkedHashMap<>();
+        private final Set<Long> deletes = new LinkedHashSet<>();
+
+        private void upsert(Member member) {
+            upserts.put(member.getId(), member);
+        }
+
+        private void delete(Long memberId) {
+            upserts.remove(memberId);
+            deletes.add(memberId);
+        }
+    }
+
+    private boolean nameChanged(PostUpdateEvent event) {
+        if (event.getOldState() == null) { //detached merge 등 > 이전 값을 모르면 그냥 반영
+            return true;
+        }
+        int index = propertyIndex(event.getPersister(), "name");
+        return !Objects.equals(event.getOldState()[index], event.getState()[index]);
+    }
+
+    private int propertyIndex(EntityPersister persister, String propertyName) {
+        String[] names = persister.getPropertyNames();
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(propertyName)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(propertyName);
+    }
+}
@@ -0,0 +1,144 @@
+package study.querydsl.repository;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * member_search 테이블 쓰기
+ * - 엔티티 이벤트에서는 flush 도중이므로 JDBC 커넥션으로 직접 (영속성 컨텍스트를 건드리면 안된다)
+ *   회원 변경은 flush 한 번 동안 모아서 addBatch/executeBatch로 (MemberSearchSyncListener)
+ * - 벌크 연산 후에는 member, team 테이블에서 다시 읽어서 덮어쓴다
+ */
+public abstract class MemberSearchSynchronizer {
+
+    private static final int BATCH_SIZE = 1000;
+
+    public static void upsert(Connection connection, Collection<Row> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "merge into member_search (member_id, username, age, team_id, team_name) key (member_id) values (?, ?, ?, ?, ?)")) {
+            for (Row row : rows) {
+                statement.setLong(1, row.memberId);
+                statement.setString(2, row.username);
+                statement.setInt(3, row.age);
+                if (row.teamId != null) {
+                    statement.setLong(4, row.teamId);
+                } else {
+                    statement.setNull(4, Types.BIGINT);
+                }
+                statement.setString(5, row.teamName);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    public static void delete(Connection connection, Collection<Long> memberIds) throws SQLException {
+        if (memberIds.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("delete from member_search where member_id = ?")) {
+            for (Long memberId : memberIds) {
+                statement.setLong(1, memberId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    //팀 이름이 바뀌면 그 팀 회원들의 team_name도 같이
+    public static void renameTeam(Connection connection, Long teamId, String teamName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("update member_search set team_name = ? where team_id = ?")) {
+            statement.setString(1, teamName);
+            statement.setLong(2, teamId);
+            statement.executeUpdate();
+        }
+    }
+
+    public static void removeTeam(Connection connection, Long teamId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("update member_search set team_id = null, team_name = null where team_id = ?")) {
+            statement.setLong(1, teamId);
+            statement.executeUpdate();
+        }
+    }
+
+    public static String teamName(Connection connection, Long teamId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("select name from team where id = ?")) {
+            statement.setLong(1, teamId);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    //전체를 member, team 테이블에서 다시 채운다 (projection-table을 켜고 기동할 때, MemberSearchBackfill)
+    public static int rebuild(EntityManager em) {
+        em.createNativeQuery("delete from member_search").executeUpdate();
+        return em.createNativeQuery("insert into member_search (member_id, username, age, team_id, team_name)" +
+                        " select m.member_id, m.username, m.age, t.id, t.name" +
+                        " from member m left join team t on m.team_id = t.id")
+                .executeUpdate();
+    }
+
+    //벌크 update 이후: DB의 현재 값으로 다시 채운다 (삭제된 회원은 지운다)
+    public static void refresh(EntityManager em, Collection<Long> memberIds) {
+        for (List<Long> chunk : InClause.chunks(memberIds)) {
+            em.createNativeQuery("delete from member_search where member_id in (:ids)")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+            em.createNativeQuery("insert into member_search (member_id, username, age, team_id, team_name)" +
+                            " select m.member_id, m.username, m.age, t.id, t.name" +
+                            " from member m left join team t on m.team_id = t.id" +
+                            " where m.member_id in (:ids)")
+                    .setParameter("ids", chunk)
+                    .executeUpdate();
+        }
+    }
+
+    //upsert 이후: 그 username 회원들을 다시 덮어쓴다 (upsert는 지우지 않으므로 merge만)
+    //username 하나에 한 행씩 batch로 (username 인덱스로 찾는다)
+    public static void refreshByUsernames(Connection connection, Collection<String> usernames) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "merge into member_search (member_id, username, age, team_id, team_name) key (member_id)" +
+                        " select m.member_id, m.username, m.age, t.id, t.name" +
+                        " from member m left join team t on m.team_id = t.id" +
+                        " where m.username = ?")) {
+            int batched = 0;
+            for (String username : usernames) {
+                statement.setString(1, username);
+                statement.addBatch();
+                if (++batched == BATCH_SIZE) {
+                    statement.executeBatch();
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    public static class Row {
+        private final Long memberId;
+        private final String username;
+        private final int age;
+        private final Long teamId;
+        private final String teamName;
+
+        public Row(Long memberId, String username, int age, Long teamId, String teamName) {
+            this.memberId = memberId;
+            this.username = username;
+            this.age = age;
+            this.teamId = teamId;
+            this.teamName = teamName;
+        }
+    }
+}
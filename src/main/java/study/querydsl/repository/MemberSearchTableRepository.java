@@ -0,0 +1,63 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.budget.QueryBudgets;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+import java.util.List;
+
+import static org.springframework.util.StringUtils.*;
+import static study.querydsl.entity.QMemberSearch.*;
+
+/**
+ * member_search(비정규화 테이블)에서 검색 > team 조인 없음
+ * MemberJpaRepository.search와 같은 결과 (member.search.projection-table=true 이면 /v1/members가 이걸 쓴다)
+ * 그때는 기동하면서 MemberSearchBackfill이 member_search를 전체 다시 채운다 (동기화 리스너가 없던 동안의 데이터)
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberSearchTableRepository {
+
+    private final JPAQueryFactory queryFactory;
+    private final QueryBudgets queryBudgets;
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return queryBudgets.fetch(queryFactory
+                .select(new QMemberTeamDto(
+                        memberSearch.memberId,
+                        memberSearch.username,
+                        memberSearch.age,
+                        memberSearch.teamId,
+                        memberSearch.teamName
+                ))
+                .from(memberSearch)
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())));
+    }
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? memberSearch.username.eq(username) : null;
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? memberSearch.teamName.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? memberSearch.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? memberSearch.age.loe(ageLoe) : null;
+    }
+}
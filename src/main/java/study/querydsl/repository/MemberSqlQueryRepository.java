@@ -0,0 +1,67 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.sql.SQLQueryFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.sql.SQMember.member;
+import static study.querydsl.sql.SQTeam.team;
+
+/**
+ * MemberRepositoryCustom.search와 같은 검색을 querydsl-sql로 (JPA를 거치지 않고 JDBC로 바로)
+ * 스칼라 컬럼 5개만 필요하니 HQL 변환, 하이버네이트 결과 처리, 영속성 컨텍스트가 필요없다
+ * SpringConnectionProvider는 트랜잭션이 있어야 커넥션을 주므로 readOnly 트랜잭션을 건다
+ */
+@Repository
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class MemberSqlQueryRepository {
+
+    private final SQLQueryFactory sqlQueryFactory;
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        return sqlQueryFactory
+                .select(new QMemberTeamDto( //row > DTO 생성자로 바로 매핑
+                        member.memberId,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id)) //querydsl-sql은 연관관계가 없으니 on으로 직접 조인
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .fetch();
+    }
+
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private Predicate teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+}
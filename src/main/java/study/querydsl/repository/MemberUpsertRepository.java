@@ -0,0 +1,13 @@
+package study.querydsl.repository;
+
+import study.querydsl.dto.MemberUpsert;
+
+import java.util.Collection;
+
+/**
+ * username 기준 insert or update (findByUsername + save 반복 대신 MERGE 몇 번)
+ */
+public interface MemberUpsertRepository {
+
+    long upsertByUsername(Collection<MemberUpsert> rows); //반환: 반영된 row 수, 같은 username이 여러 번이면 마지막 값
+}
@@ -0,0 +1,132 @@
+package study.querydsl.repository;
+
+import org.hibernate.Session;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.cache.CacheVersions;
+import study.querydsl.dto.MemberUpsert;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 행 여러 개를 MERGE 한 문장에 담고(ROWS_PER_STATEMENT), 그 문장을 JDBC batch로 보낸다
+ * 영속성 컨텍스트를 거치지 않으므로 끝나고 캐시들을 맞춘다
+ * - 영속성 컨텍스트: 해당 username 회원만 준영속으로 (다음 조회 때 DB 값)
+ * - member_search, totalCount 추정 캐시
+ * - cache_version (다른 노드 캐시)
+ * username은 유일하지 않다 (유니크 제약 없음) > 같은 username 회원이 여럿이면 전부 갱신되고, 없을 때만 insert
+ * MERGE ... ON username은 idx_member_username 인덱스를 탄다
+ */
+@Transactional
+public class MemberUpsertRepositoryImpl implements MemberUpsertRepository {
+
+    private static final int ROWS_PER_STATEMENT = 100;
+    private static final int STATEMENTS_PER_BATCH = 50;
+
+    private final EntityManager em;
+    private final UpsertDialect dialect;
+    private final MemberCountEstimator countEstimator;
+
+    public MemberUpsertRepositoryImpl(EntityManager em, UpsertDialect dialect, MemberCountEstimator countEstimator) {
+        this.em = em;
+        this.dialect = dialect;
+        this.countEstimator = countEstimator;
+    }
+
+    @Override
+    public long upsertByUsername(Collection<MemberUpsert> rows) {
+        Map<String, MemberUpsert> byUsername = new LinkedHashMap<>(); //한 문장 안에 같은 username이 두 번 있으면 MERGE가 실패한다
+        for (MemberUpsert row : rows) {
+            byUsername.put(row.getUsername(), row);
+        }
+        if (byUsername.isEmpty()) {
+            return 0;
+        }
+
+        em.flush(); //아직 안 나간 회원 변경이 MERGE 결과를 덮어쓰지 않게
+        List<MemberUpsert> distinct = new ArrayList<>(byUsername.values());
+        long count = em.unwrap(Session.class).doReturningWork(connection -> {
+            long merged = merge(connection, distinct);
+            MemberSearchSynchronizer.refreshByUsernames(connection, byUsername.keySet());
+            return merged;
+        });
+
+        evict(byUsername.keySet());
+        countEstimator.invalidate();
+        CacheVersions.bump(em, CacheVersions.MEMBER);
+        return count;
+    }
+
+    //꽉 찬 문장들 + 나머지 한 문장 > SQL 모양은 최대 2개
+    private long merge(Connection connection, List<MemberUpsert> rows) throws SQLException {
+        int full = rows.size() / ROWS_PER_STATEMENT * ROWS_PER_STATEMENT;
+        long count = 0;
+        if (full > 0) {
+            count += execute(connection, rows.subList(0, full), ROWS_PER_STATEMENT);
+        }
+        if (full < rows.size()) {
+            count += execute(connection, rows.subList(full, rows.size()), rows.size() - full);
+        }
+        return count;
+    }
+
+    private long execute(Connection connection, List<MemberUpsert> rows, int rowsPerStatement) throws SQLException {
+        long count = 0;
+        try (PreparedStatement statement = connection.prepareStatement(dialect.upsertMembersByUsername(rowsPerStatement))) {
+            int batched = 0;
+            for (int from = 0; from < rows.size(); from += rowsPerStatement) {
+                int index = 1;
+                for (MemberUpsert row : rows.subList(from, from + rowsPerStatement)) {
+                    statement.setString(index++, row.getUsername());
+                    statement.setInt(index++, row.getAge());
+                    if (row.getTeamId() != null) {
+                        statement.setLong(index++, row.getTeamId());
+                    } else {
+                        statement.setNull(index++, Types.BIGINT);
+                    }
+                }
+                statement.addBatch();
+                if (++batched == STATEMENTS_PER_BATCH) {
+                    count += sum(statement.executeBatch());
+                    batched = 0;
+                }
+            }
+            if (batched > 0) {
+                count += sum(statement.executeBatch());
+            }
+        }
+        return count;
+    }
+
+    private long sum(int[] counts) {
+        long sum = 0;
+        for (int count : counts) {
+            sum += Math.max(count, 0); //SUCCESS_NO_INFO(-2)
+        }
+        return sum;
+    }
+
+    private void evict(Set<String> usernames) {
+        List<Object> managed = new ArrayList<>();
+        for (Map.Entry<Object, EntityEntry> entry : em.unwrap(SessionImplementor.class).getPersistenceContextInternal().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof Member && usernames.contains(((Member) entry.getKey()).getUsername())) {
+                managed.add(entry.getKey());
+            }
+        }
+        for (Object entity : managed) {
+            em.detach(entity);
+        }
+    }
+}
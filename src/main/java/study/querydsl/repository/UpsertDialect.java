@@ -0,0 +1,10 @@
+package study.querydsl.repository;
+
+/**
+ * DB별 upsert SQL
+ * 행마다 파라미터는 (username, age, team_id) 순서, rows개를 한 문장에 담는다
+ */
+public interface UpsertDialect {
+
+    String upsertMembersByUsername(int rows);
+}
@@ -0,0 +1,58 @@
+package study.querydsl.shard;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 각 샤드에서 정렬되어 온 결과를 하나의 정렬된 결과로 합친다 (k-way merge)
+ * 샤드 k개, 결과 n개일 때 O(n log k) > 다 모아서 다시 정렬할 필요가 없다
+ */
+public abstract class KWayMerge {
+
+    public static <T> List<T> merge(List<List<T>> sortedLists, Comparator<? super T> comparator, long offset, long limit) {
+        PriorityQueue<Cursor<T>> heap = new PriorityQueue<>(Math.max(1, sortedLists.size()),
+                (a, b) -> comparator.compare(a.current, b.current));
+        for (List<T> list : sortedLists) {
+            Iterator<T> iterator = list.iterator();
+            if (iterator.hasNext()) {
+                heap.add(new Cursor<>(iterator));
+            }
+        }
+
+        List<T> result = new ArrayList<>();
+        long skipped = 0;
+        while (!heap.isEmpty() && result.size() < limit) {
+            Cursor<T> cursor = heap.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                result.add(cursor.current);
+            }
+            if (cursor.advance()) {
+                heap.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    private static class Cursor<T> {
+        private final Iterator<T> iterator;
+        private T current;
+
+        private Cursor(Iterator<T> iterator) {
+            this.iterator = iterator;
+            this.current = iterator.next();
+        }
+
+        private boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current = iterator.next();
+            return true;
+        }
+    }
+}
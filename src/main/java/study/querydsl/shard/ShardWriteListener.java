@@ -0,0 +1,104 @@
+package study.querydsl.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 단일 DB에 커밋된 Member, Team 변경을 샤드에 적는다 (커밋 후, 샤드마다 자동 커밋)
+ * - Member insert/update > shardOf(id) 샤드에 merge, delete > delete
+ * - Team > 모든 샤드에 merge/delete
+ * 샤드 쓰기가 실패해도 이미 커밋된 원본은 그대로 > 로그만 남긴다 (다시 맞추려면 backfill)
+ * JPQL/Querydsl 벌크 연산, upsertByUsername 처럼 이벤트가 안 나오는 쓰기는 반영되지 않는다
+ */
+@Slf4j
+public class ShardWriteListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final ShardedMemberRepository shards;
+
+    public ShardWriteListener(EntityManagerFactory emf, ShardedMemberRepository shards) {
+        this.emf = emf;
+        this.shards = shards;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        save(event.getEntity());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        save(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        try {
+            if (event.getEntity() instanceof Member) {
+                shards.deleteMember((Long) event.getId());
+            } else if (event.getEntity() instanceof Team) {
+                shards.deleteTeam((Long) event.getId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("shard delete failed: {}#{}", event.getPersister().getEntityName(), event.getId(), e);
+        }
+    }
+
+    //커밋이 실패하면 원본에도 없는 변경 > 아무것도 안 한다
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return true;
+    }
+
+    private void save(Object entity) {
+        try {
+            if (entity instanceof Member) {
+                Member member = (Member) entity;
+                Long teamId = member.getTeam() != null ? member.getTeam().getId() : null; //프록시여도 id는 초기화 없이
+                shards.saveMember(new MemberTeamDto(member.getId(), member.getUsername(), member.getAge(), teamId, null));
+            } else if (entity instanceof Team) {
+                Team team = (Team) entity;
+                shards.saveTeam(team.getId(), team.getName());
+            }
+        } catch (RuntimeException e) {
+            log.warn("shard write failed: {}", entity, e);
+        }
+    }
+}
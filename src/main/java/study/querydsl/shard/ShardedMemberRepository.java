@@ -0,0 +1,232 @@
+package study.querydsl.shard;
+
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.sql.SQLQuery;
+import com.querydsl.sql.SQLQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import study.querydsl.dto.EstimatedPage;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.MemberRepositoryCustom;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.sql.SQMember.member;
+import static study.querydsl.sql.SQTeam.team;
+
+/**
+ * member는 id 해시로 N개 DB에 나눠 저장하고, team은 모든 샤드에 복제한다 (조인은 샤드 안에서 끝남)
+ * 검색은 scatter-gather: 모든 샤드에 병렬로 같은 쿼리 > memberId 순으로 정렬된 결과를 k-way merge, count는 합산
+ * 정렬은 memberId 오름차순 고정 (Pageable의 sort는 사용하지 않는다)
+ * sharding.enabled=true 이면 MemberRepository의 검색(MemberRepositoryCustom)이 이쪽으로 온다 (MemberRepositoryImpl)
+ * 쓰기는 단일 DB가 원본, 샤드는 커밋된 변경을 받아 적는다 (ShardWriteListener)
+ * - member id는 단일 DB의 hibernate_sequence로 정해지고 shardOf(id) 샤드 하나에만 들어간다 (id가 안 바뀌니 샤드도 안 바뀐다)
+ * - team은 모든 샤드에 복제
+ */
+public class ShardedMemberRepository implements MemberRepositoryCustom, AutoCloseable {
+
+    private static final Comparator<MemberTeamDto> MEMBER_ID_ORDER = Comparator.comparing(MemberTeamDto::getMemberId);
+
+    private final List<SQLQueryFactory> shards;
+    private final List<HikariDataSource> pools; //close()에서 같이 닫는다
+    private final ExecutorService executor;
+
+    public ShardedMemberRepository(List<SQLQueryFactory> shards) {
+        this(shards, List.of());
+    }
+
+    public ShardedMemberRepository(List<SQLQueryFactory> shards, List<HikariDataSource> pools) {
+        this.shards = List.copyOf(shards);
+        this.pools = List.copyOf(pools);
+        this.executor = Executors.newFixedThreadPool(shards.size());
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public int shardOf(long memberId) {
+        long hash = memberId * 0x9E3779B97F4A7C15L; //연속된 id도 고르게 퍼지도록 섞는다
+        return (int) Math.floorMod(hash ^ (hash >>> 32), (long) shards.size());
+    }
+
+    //team은 모든 샤드에 복제 (있으면 이름만 바뀐다)
+    public void saveTeam(Long teamId, String name) {
+        for (SQLQueryFactory shard : shards) {
+            shard.merge(team)
+                    .keys(team.id)
+                    .set(team.id, teamId)
+                    .set(team.name, name)
+                    .execute();
+        }
+    }
+
+    public void deleteTeam(Long teamId) {
+        for (SQLQueryFactory shard : shards) {
+            shard.delete(team).where(team.id.eq(teamId)).execute();
+        }
+    }
+
+    //insert, update 모두 (member_id로 merge)
+    public void saveMember(MemberTeamDto row) {
+        shards.get(shardOf(row.getMemberId())).merge(member)
+                .keys(member.memberId)
+                .set(member.memberId, row.getMemberId())
+                .set(member.username, row.getUsername())
+                .set(member.age, row.getAge())
+                .set(member.teamId, row.getTeamId())
+                .execute();
+    }
+
+    public void deleteMember(Long memberId) {
+        shards.get(shardOf(memberId)).delete(member).where(member.memberId.eq(memberId)).execute();
+    }
+
+    @Override
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        List<List<MemberTeamDto>> results = scatter(shard -> contentQuery(shard, condition).fetch());
+        return KWayMerge.merge(results, MEMBER_ID_ORDER, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * 샤드마다 앞에서부터 offset + pageSize 만큼 가져와야 전체 기준의 페이지를 만들 수 있다
+     */
+    @Override
+    public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        long offset = pageable.getOffset();
+        int pageSize = pageable.getPageSize();
+
+        List<ShardPage> pages = scatter(shard -> new ShardPage(
+                contentQuery(shard, condition).limit(offset + pageSize).fetch(),
+                countQuery(shard, condition).fetchCount()));
+
+        List<MemberTeamDto> content = KWayMerge.merge(
+                pages.stream().map(page -> page.content).collect(Collectors.toList()), MEMBER_ID_ORDER, offset, pageSize);
+        long total = pages.stream().mapToLong(page -> page.total).sum();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        return searchPageSimple(condition, pageable); //샤딩에서는 어차피 content/count를 따로 날린다
+    }
+
+    @Override
+    public Slice<MemberTeamDto> searchSlice(MemberSearchCondition condition, Pageable pageable) {
+        long offset = pageable.getOffset();
+        int pageSize = pageable.getPageSize();
+
+        List<List<MemberTeamDto>> results = scatter(shard -> contentQuery(shard, condition).limit(offset + pageSize + 1).fetch());
+        List<MemberTeamDto> content = KWayMerge.merge(results, MEMBER_ID_ORDER, offset, pageSize + 1);
+
+        boolean hasNext = content.size() > pageSize;
+        return new SliceImpl<>(hasNext ? content.subList(0, pageSize) : content, pageable, hasNext);
+    }
+
+    //샤드별 count는 병렬로 나가므로 정확한 값을 그대로 준다
+    @Override
+    public EstimatedPage<MemberTeamDto> searchPageApproximate(MemberSearchCondition condition, Pageable pageable) {
+        Page<MemberTeamDto> page = searchPageSimple(condition, pageable);
+        return new EstimatedPage<>(page.getContent(), pageable, page.getTotalElements(), true);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        pools.forEach(HikariDataSource::close);
+    }
+
+    private <T> List<T> scatter(Function<SQLQueryFactory, T> query) {
+        List<CompletableFuture<T>> futures = shards.stream()
+                .map(shard -> CompletableFuture.supplyAsync(() -> query.apply(shard), executor))
+                .collect(Collectors.toList());
+        return futures.stream()
+                .map(ShardedMemberRepository::join)
+                .collect(Collectors.toList());
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static class ShardPage {
+        private final List<MemberTeamDto> content;
+        private final long total;
+
+        private ShardPage(List<MemberTeamDto> content, long total) {
+            this.content = content;
+            this.total = total;
+        }
+    }
+
+    private SQLQuery<MemberTeamDto> contentQuery(SQLQueryFactory shard, MemberSearchCondition condition) {
+        return shard
+                .select(new QMemberTeamDto(
+                        member.memberId,
+                        member.username,
+                        member.age,
+                        team.id,
+                        team.name
+                ))
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id))
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .orderBy(member.memberId.asc());
+    }
+
+    private SQLQuery<Long> countQuery(SQLQueryFactory shard, MemberSearchCondition condition) {
+        return shard
+                .select(member.memberId)
+                .from(member)
+                .leftJoin(team).on(member.teamId.eq(team.id))
+                .where(
+                        usernameEq(condition.getUsername()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()));
+    }
+
+
+    private BooleanExpression usernameEq(String username) {
+        return hasText(username) ? member.username.eq(username) : null;
+    }
+
+    private Predicate teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+}
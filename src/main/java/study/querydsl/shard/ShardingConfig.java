@@ -0,0 +1,68 @@
+package study.querydsl.shard;
+
+import com.querydsl.sql.H2Templates;
+import com.querydsl.sql.SQLQueryFactory;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * sharding.enabled=true 일 때만 등록
+ * sharding.urls 에 샤드 DB를 순서대로 적는다 (로컬에서는 H2 여러 개로 테스트 가능)
+ * 켜면 MemberRepository 검색이 샤드로 간다 > 기존 데이터는 미리 샤드로 옮겨 둬야 한다 (ShardWriteListener는 이후 변경만 적는다)
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(prefix = "sharding", name = "enabled", havingValue = "true")
+public class ShardingConfig {
+
+    /**
+     * 샤드마다 HikariCP 풀 하나 (poolName shard-0, shard-1, ...)
+     * 풀은 ShardedMemberRepository.close()에서 닫힌다 (빈 destroy 시 AutoCloseable로 호출)
+     */
+    @Bean
+    public ShardedMemberRepository shardedMemberRepository(ShardingProperties properties) {
+        List<SQLQueryFactory> shards = new ArrayList<>();
+        List<HikariDataSource> pools = new ArrayList<>();
+        try {
+            for (String url : properties.getUrls()) {
+                HikariDataSource dataSource = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(url)
+                        .username(properties.getUsername())
+                        .password(properties.getPassword())
+                        .build();
+                dataSource.setPoolName("shard-" + pools.size());
+                pools.add(dataSource);
+                if (properties.isInitializeSchema()) {
+                    new ResourceDatabasePopulator(new ClassPathResource("db/member-schema.sql")).execute(dataSource);
+                }
+                shards.add(createQueryFactory(dataSource));
+            }
+        } catch (RuntimeException e) {
+            pools.forEach(HikariDataSource::close); //빈이 안 만들어지면 close()도 안 불린다
+            throw e;
+        }
+        return new ShardedMemberRepository(shards, pools);
+    }
+
+    @Bean
+    public ShardWriteListener shardWriteListener(EntityManagerFactory emf, ShardedMemberRepository shardedMemberRepository) {
+        return new ShardWriteListener(emf, shardedMemberRepository);
+    }
+
+    //샤드 쿼리는 트랜잭션 없이 DataSource에서 바로 커넥션을 얻고 반납한다
+    public static SQLQueryFactory createQueryFactory(DataSource dataSource) {
+        return new SQLQueryFactory(new com.querydsl.sql.Configuration(new H2Templates()), dataSource);
+    }
+}
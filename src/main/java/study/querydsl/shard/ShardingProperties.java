@@ -0,0 +1,19 @@
+package study.querydsl.shard;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "sharding")
+public class ShardingProperties {
+
+    private boolean enabled = false;
+    private List<String> urls = new ArrayList<>(); //샤드 순서가 곧 샤드 번호 (바꾸면 데이터 위치가 달라진다)
+    private String username = "sa";
+    private String password = "";
+    private boolean initializeSchema = false; //db/member-schema.sql 로 테이블 생성
+}
@@ -0,0 +1,26 @@
+package study.querydsl.slowquery;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 느린 쿼리 한 건
+ * plan은 별도 커넥션에서 비동기로 채운다 (아직 안 끝났으면 null)
+ */
+@Getter
+@RequiredArgsConstructor
+public class SlowQuery {
+
+    private final Instant capturedAt;
+    private final String thread;
+    private final long elapsedMillis;
+    private final String sql; //? 그대로
+    private final String sqlWithValues; //바인딩 값이 들어간 SQL
+    private volatile String plan;
+
+    void setPlan(String plan) {
+        this.plan = plan;
+    }
+}
@@ -0,0 +1,46 @@
+package study.querydsl.slowquery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 크기가 고정된 링 버퍼 (가득 차면 가장 오래된 것을 덮어쓴다)
+ */
+public class SlowQueryBuffer {
+
+    private final SlowQuery[] queries;
+    private int next;
+    private long total;
+
+    public SlowQueryBuffer(int capacity) {
+        this.queries = new SlowQuery[capacity];
+    }
+
+    public synchronized void add(SlowQuery query) {
+        queries[next] = query;
+        next = (next + 1) % queries.length;
+        total++;
+    }
+
+    //최근 것부터
+    public synchronized List<SlowQuery> snapshot() {
+        int size = (int) Math.min(total, queries.length);
+        List<SlowQuery> result = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            result.add(queries[(next - i + queries.length) % queries.length]);
+        }
+        return result;
+    }
+
+    //지금까지 기록된 전체 개수 (덮어써서 사라진 것 포함)
+    public synchronized long total() {
+        return total;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(queries, null);
+        next = 0;
+        total = 0;
+    }
+}
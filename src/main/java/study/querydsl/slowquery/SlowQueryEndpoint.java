@@ -0,0 +1,37 @@
+package study.querydsl.slowquery;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET /actuator/slowqueries : 최근 느린 쿼리 (최근 것부터, SQL + 바인딩 값 + 실행 계획)
+ * DELETE /actuator/slowqueries : 비우기
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+
+    private final SlowQueryRecorder recorder;
+    private final SlowQueryProperties properties;
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("thresholdMillis", properties.getThreshold().toMillis());
+        result.put("total", recorder.getBuffer().total());
+        result.put("queries", recorder.getBuffer().snapshot());
+        return result;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        recorder.getBuffer().clear();
+    }
+}
@@ -0,0 +1,19 @@
+package study.querydsl.slowquery;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "slow-query")
+public class SlowQueryProperties {
+
+    private Duration threshold = Duration.ofMillis(500); //JDBC 실행 시간이 이 이상이면 기록
+    private int capacity = 100; //최근 몇 개까지 보관 (넘치면 오래된 것부터 덮어쓴다)
+    private boolean explain = true; //select는 EXPLAIN ANALYZE 결과도 같이
+    private Duration explainTimeout = Duration.ofSeconds(10);
+}
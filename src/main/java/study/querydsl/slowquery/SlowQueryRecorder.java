@@ -0,0 +1,110 @@
+package study.querydsl.slowquery;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * p6spy로 JDBC 실행 시간을 보고 threshold를 넘으면 SlowQueryBuffer에 남긴다
+ * select는 별도 커넥션에서 EXPLAIN ANALYZE를 다시 돌려서 실행 계획을 붙인다
+ * - EXPLAIN 스레드 1개, 대기 10개 > 넘치면 계획 없이 기록만 (커넥션 풀을 잡아먹지 않게)
+ * - DataSource는 ObjectProvider로 (p6spy 리스너가 DataSource보다 먼저 만들어진다)
+ */
+@Slf4j
+@Component
+public class SlowQueryRecorder extends SimpleJdbcEventListener {
+
+    private static final Pattern LOCKING = Pattern.compile("\\bfor\\s+(no\\s+key\\s+update|key\\s+share|update|share)\\b");
+
+    private final SlowQueryProperties properties;
+    private final ObjectProvider<DataSource> dataSource;
+    private final SlowQueryBuffer buffer;
+    private final ThreadPoolExecutor explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(10), runnable -> {
+        Thread thread = new Thread(runnable, "slow-query-explain");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SlowQueryRecorder(SlowQueryProperties properties, ObjectProvider<DataSource> dataSource) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.buffer = new SlowQueryBuffer(properties.getCapacity());
+    }
+
+    public SlowQueryBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (timeElapsedNanos < properties.getThreshold().toNanos()) {
+            return;
+        }
+        String sql = statementInformation.getSql();
+        if (sql == null || isExplain(sql)) { //EXPLAIN 자체가 느려도 다시 기록하지 않는다
+            return;
+        }
+
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), Thread.currentThread().getName(),
+                TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), sql, statementInformation.getSqlWithValues());
+        buffer.add(slowQuery);
+        if (properties.isExplain() && isSelect(sql)) {
+            try {
+                explainer.execute(() -> explain(slowQuery));
+            } catch (RejectedExecutionException rejected) {
+                slowQuery.setPlan("(explain skipped: queue full)");
+            }
+        }
+    }
+
+    private void explain(SlowQuery slowQuery) {
+        try (Connection connection = dataSource.getObject().getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setReadOnly(true);
+            statement.setQueryTimeout((int) Math.max(1, properties.getExplainTimeout().getSeconds()));
+            try (ResultSet resultSet = statement.executeQuery("EXPLAIN ANALYZE " + slowQuery.getSqlWithValues())) {
+                StringJoiner plan = new StringJoiner("\n");
+                while (resultSet.next()) {
+                    plan.add(resultSet.getString(1));
+                }
+                slowQuery.setPlan(plan.toString());
+            }
+        } catch (Exception e) {
+            log.debug("explain failed: {}", slowQuery.getSql(), e);
+            slowQuery.setPlan("(explain failed: " + e.getMessage() + ")");
+        }
+    }
+
+    //EXPLAIN ANALYZE는 쿼리를 실제로 실행한다 > insert/update/delete, select ... for update/share(락을 잡는다)는 절대 안 돌린다
+    static boolean isSelect(String sql) {
+        String trimmed = sql.trim().toLowerCase(Locale.ROOT);
+        return (trimmed.startsWith("select") || trimmed.startsWith("with")) && !LOCKING.matcher(trimmed).find();
+    }
+
+    private boolean isExplain(String sql) {
+        return sql.trim().toLowerCase(Locale.ROOT).startsWith("explain");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainer.shutdownNow();
+    }
+}
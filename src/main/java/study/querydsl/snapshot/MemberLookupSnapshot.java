@@ -0,0 +1,312 @@
+package study.querydsl.snapshot;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * id, username > member 조회용 읽기 전용 해시 (파일을 mmap, 힙 밖)
+ * 한번 만들면 바뀌지 않는다 > 데이터가 바뀌면 새로 만들어서 통째로 바꾼다 (MemberSnapshotLookup)
+ *
+ * 파일 구조 (big endian)
+ * header(64) | id 테이블: slot(long id, int ref) | username 테이블: slot(int hash, int ref) | record...
+ * record: long id, int age, long teamId(-1: 없음), username(short 길이(-1: null) + UTF-8), teamName(같은 형식)
+ * 테이블은 open addressing (linear probing, 2의 거듭제곱 크기, 50% 이하로 채움), ref = record 위치 + 1 (0: 빈 slot)
+ * username은 중복될 수 있다(파일 형식상) > 빈 slot을 만날 때까지 같은 username을 모두 모으고 member_id 순으로 (DB 조회와 같은 순서)
+ */
+public class MemberLookupSnapshot {
+
+    private static final int MAGIC = 0x4D534E50; //MSNP
+    private static final int FORMAT = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int ID_SLOT_SIZE = 12;
+    private static final int NAME_SLOT_SIZE = 8;
+    private static final int RECORD_FIXED_SIZE = 8 + 4 + 8;
+
+    private final ByteBuffer buffer; //absolute get만 사용 > 여러 스레드에서 같이 읽어도 된다
+    @Getter
+    private final DataVersion version;
+    private final int idSlots;
+    private final int nameSlots;
+    private final int idTable;
+    private final int nameTable;
+    private final int records;
+
+    private MemberLookupSnapshot(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.version = new DataVersion(buffer.getLong(8), buffer.getLong(16), buffer.getInt(24), buffer.getLong(40));
+        this.idSlots = buffer.getInt(28);
+        this.nameSlots = buffer.getInt(32);
+        this.idTable = HEADER_SIZE;
+        this.nameTable = idTable + idSlots * ID_SLOT_SIZE;
+        this.records = nameTable + nameSlots * NAME_SLOT_SIZE;
+    }
+
+    /**
+     * 임시 파일에 쓰고 force() 한 다음 file로 옮긴다 (중간에 죽어도 이전 스냅샷은 멀쩡하다)
+     */
+    public static MemberLookupSnapshot write(Path file, List<MemberTeamDto> rows, DataVersion version) throws IOException {
+        int count = rows.size();
+        byte[][] usernames = new byte[count][];
+        byte[][] teamNames = new byte[count][];
+        int[] offsets = new int[count];
+        long recordsLength = 0;
+        for (int i = 0; i < count; i++) {
+            usernames[i] = encode(rows.get(i).getUsername());
+            teamNames[i] = encode(rows.get(i).getTeamName());
+            offsets[i] = (int) recordsLength;
+            recordsLength += RECORD_FIXED_SIZE + stringSize(usernames[i]) + stringSize(teamNames[i]);
+        }
+
+        int idSlots = tableSize(count);
+        int nameSlots = tableSize(count);
+        long size = HEADER_SIZE + (long) idSlots * ID_SLOT_SIZE + (long) nameSlots * NAME_SLOT_SIZE + recordsLength;
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("snapshot too large: " + size + " bytes");
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size); //새 파일은 0으로 채워져 있다 = 모든 slot이 비어있음
+            out.putInt(0, MAGIC);
+            out.putInt(4, FORMAT);
+            out.putLong(8, version.getMemberVersion());
+            out.putLong(16, version.getTeamVersion());
+            out.putInt(24, count);
+            out.putInt(28, idSlots);
+            out.putInt(32, nameSlots);
+            out.putInt(36, (int) recordsLength);
+            out.putLong(40, version.getMaxMemberId());
+
+            int nameTable = HEADER_SIZE + idSlots * ID_SLOT_SIZE;
+            int records = nameTable + nameSlots * NAME_SLOT_SIZE;
+            for (int i = 0; i < count; i++) {
+                MemberTeamDto row = rows.get(i);
+                int ref = offsets[i] + 1;
+
+                int p = records + offsets[i];
+                out.putLong(p, row.getMemberId());
+                out.putInt(p + 8, row.getAge());
+                out.putLong(p + 12, row.getTeamId() != null ? row.getTeamId() : -1);
+                p = putString(out, p + RECORD_FIXED_SIZE, usernames[i]);
+                putString(out, p, teamNames[i]);
+
+                int slot = idHash(row.getMemberId()) & (idSlots - 1);
+                while (out.getInt(HEADER_SIZE + slot * ID_SLOT_SIZE + 8) != 0) {
+                    slot = (slot + 1) & (idSlots - 1);
+                }
+                out.putLong(HEADER_SIZE + slot * ID_SLOT_SIZE, row.getMemberId());
+                out.putInt(HEADER_SIZE + slot * ID_SLOT_SIZE + 8, ref);
+
+                if (usernames[i] != null) {
+                    int hash = nameHash(usernames[i]);
+                    slot = hash & (nameSlots - 1);
+                    while (out.getInt(nameTable + slot * NAME_SLOT_SIZE + 4) != 0) {
+                        slot = (slot + 1) & (nameSlots - 1);
+                    }
+                    out.putInt(nameTable + slot * NAME_SLOT_SIZE, hash);
+                    out.putInt(nameTable + slot * NAME_SLOT_SIZE + 4, ref);
+                }
+            }
+            out.force();
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        MemberLookupSnapshot snapshot = open(file);
+        if (snapshot == null) {
+            throw new IOException("snapshot written but could not be opened: " + file);
+        }
+        return snapshot;
+    }
+
+    /**
+     * 파일을 읽기 전용으로 map (내용을 읽지 않으므로 크기와 상관없이 바로 끝난다, 페이지는 처음 접근할 때 올라온다)
+     * 없거나 형식이 맞지 않으면 null
+     */
+    public static MemberLookupSnapshot open(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size); //채널을 닫아도 mapping은 유지된다
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT) {
+                return null;
+            }
+            long expected = HEADER_SIZE + (long) buffer.getInt(28) * ID_SLOT_SIZE
+                    + (long) buffer.getInt(32) * NAME_SLOT_SIZE + buffer.getInt(36);
+            if (expected != size || Integer.bitCount(buffer.getInt(28)) != 1 || Integer.bitCount(buffer.getInt(32)) != 1) {
+                return null; //쓰다 만 파일
+            }
+            return new MemberLookupSnapshot(buffer);
+        }
+    }
+
+    public int size() {
+        return version.getMemberCount();
+    }
+
+    public MemberTeamDto findById(long id) {
+        int slot = idHash(id) & (idSlots - 1);
+        while (true) {
+            int position = idTable + slot * ID_SLOT_SIZE;
+            int ref = buffer.getInt(position + 8);
+            if (ref == 0) {
+                return null;
+            }
+            if (buffer.getLong(position) == id) {
+                return read(records + ref - 1);
+            }
+            slot = (slot + 1) & (idSlots - 1);
+        }
+    }
+
+    public List<MemberTeamDto> findByUsername(String username) {
+        List<MemberTeamDto> result = new ArrayList<>();
+        if (username == null) {
+            return result;
+        }
+        byte[] key = username.getBytes(StandardCharsets.UTF_8);
+        int hash = nameHash(key);
+        int slot = hash & (nameSlots - 1);
+        while (true) {
+            int position = nameTable + slot * NAME_SLOT_SIZE;
+            int ref = buffer.getInt(position + 4);
+            if (ref == 0) {
+                result.sort(Comparator.comparing(MemberTeamDto::getMemberId)); //probe 순서 > member_id 순
+                return result;
+            }
+            int record = records + ref - 1;
+            if (buffer.getInt(position) == hash && usernameEquals(record, key)) {
+                result.add(read(record));
+            }
+            slot = (slot + 1) & (nameSlots - 1);
+        }
+    }
+
+    private MemberTeamDto read(int record) {
+        long id = buffer.getLong(record);
+        int age = buffer.getInt(record + 8);
+        long teamId = buffer.getLong(record + 12);
+        int p = record + RECORD_FIXED_SIZE;
+        String username = getString(p);
+        p += 2 + Math.max(buffer.getShort(p), 0);
+        String teamName = getString(p);
+        return new MemberTeamDto(id, username, age, teamId >= 0 ? teamId : null, teamName);
+    }
+
+    private boolean usernameEquals(int record, byte[] key) {
+        int p = record + RECORD_FIXED_SIZE;
+        if (buffer.getShort(p) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(p + 2 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String getString(int p) {
+        short length = buffer.getShort(p);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate(); //position을 건드리므로 복사본에서
+        view.position(p + 2);
+        view.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int putString(ByteBuffer out, int p, byte[] bytes) {
+        if (bytes == null) {
+            out.putShort(p, (short) -1);
+            return p + 2;
+        }
+        out.putShort(p, (short) bytes.length);
+        for (int i = 0; i < bytes.length; i++) {
+            out.put(p + 2 + i, bytes[i]);
+        }
+        return p + 2 + bytes.length;
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("value too long for snapshot: " + bytes.length + " bytes");
+        }
+        return bytes;
+    }
+
+    private static int stringSize(byte[] bytes) {
+        return 2 + (bytes != null ? bytes.length : 0);
+    }
+
+    //2 * count 이상인 2의 거듭제곱 (최소 2 > 빈 slot이 항상 있다)
+    private static int tableSize(int count) {
+        long slots = Math.max(2L, 2L * count);
+        if (slots > (1 << 30)) {
+            throw new IllegalArgumentException("too many records: " + count);
+        }
+        return Integer.highestOneBit((int) slots - 1) << 1;
+    }
+
+    private static int idHash(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L; //연속된 id도 고르게 퍼지도록 섞는다
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    //FNV-1a
+    private static int nameHash(byte[] bytes) {
+        int hash = 0x811C9DC5;
+        for (byte b : bytes) {
+            hash ^= b;
+            hash *= 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * 스냅샷을 만든 시점의 DB 상태
+     * cache_version만으로는 ddl-auto: create처럼 버전이 처음부터 다시 시작하는 경우를 못 잡는다 > 건수, 최대 id도 같이 비교
+     */
+    @Getter
+    @ToString
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    public static class DataVersion {
+
+        private final long memberVersion;
+        private final long teamVersion;
+        private final int memberCount;
+        private final long maxMemberId;
+    }
+}
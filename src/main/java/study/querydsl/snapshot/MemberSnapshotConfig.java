@@ -0,0 +1,24 @@
+package study.querydsl.snapshot;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+/**
+ * member-snapshot.enabled=true 일 때만 등록
+ */
+@Configuration
+@EnableConfigurationProperties(MemberSnapshotProperties.class)
+@ConditionalOnProperty(prefix = "member-snapshot", name = "enabled", havingValue = "true")
+public class MemberSnapshotConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public MemberSnapshotLookup memberSnapshotLookup(DataSource dataSource, MemberSnapshotProperties properties,
+                                                     EntityManagerFactory emf) {
+        return new MemberSnapshotLookup(dataSource, properties, emf);
+    }
+}
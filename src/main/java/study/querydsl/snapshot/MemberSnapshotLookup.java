@@ -0,0 +1,204 @@
+package study.querydsl.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import study.querydsl.cache.CacheVersionChangedEvent;
+import study.querydsl.cache.CacheVersions;
+import study.querydsl.dto.MemberTeamDto;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * id, username으로 member 조회 (MemberLookupSnapshot에서, 스냅샷이 최신이 아니면 DB에서)
+ * 재시작하면 지난번 파일을 바로 map 하고 DB 상태(cache_version, 건수, 최대 id)와 한 번 비교 > 같으면 기동 직후부터 DB를 안 탄다
+ * 다르면 DB에서 읽다가, 백그라운드에서 새로 만들어 파일에 쓰고 교체한다
+ * member, team 변경을 알면 즉시 DB 조회로 돌리고 다시 만든다
+ * - 이 노드의 커밋: 커밋한 스레드에서 바로 (CacheVersions 커밋 리스너) > 커밋하고 나서 읽으면 자기 쓰기가 보인다 (read-your-writes)
+ * - 다른 노드의 커밋: CacheVersionChangedEvent로 (cache_version 폴링 주기만큼 늦을 수 있음), 스냅샷이 이미 그 버전이면 무시
+ * 다시 만들기는 min-rebuild-interval에 한 번까지 (쓰기가 계속 들어와도 전체 다시 쓰기를 반복하지 않는다, 그동안은 DB에서)
+ * 만드는 동안에는 이전 스냅샷을 보지 않고 DB에서 읽는다, 다 만들면 통째로 바꾼다
+ * MemberLookupRepository의 DTO 조회(findDtoById, findDtosByUsername)가 켜져 있으면 이것을 쓴다
+ */
+@Slf4j
+public class MemberSnapshotLookup {
+
+    private static final String SELECT = "select m.member_id, m.username, m.age, t.id, t.name" +
+            " from member m left join team t on m.team_id = t.id";
+    private static final RowMapper<MemberTeamDto> ROW_MAPPER = (resultSet, rowNum) -> new MemberTeamDto(
+            resultSet.getLong(1),
+            resultSet.getString(2),
+            resultSet.getInt(3),
+            resultSet.getObject(4, Long.class),
+            resultSet.getString(5));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MemberSnapshotProperties properties;
+    private final EntityManagerFactory emf;
+    private final Consumer<String> commitListener = this::onLocalCommit;
+    private volatile MemberLookupSnapshot snapshot;
+    private volatile boolean fresh; //snapshot이 DB와 같은 상태
+    private final AtomicLong changes = new AtomicLong(); //CacheVersionChangedEvent 수신 횟수
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private volatile long lastRebuildNanos; //마지막으로 다시 만들기 시작한 시각
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    //EntityManagerFactory: 테이블 생성(ddl-auto)이 끝난 뒤에 시작하려고, 이 노드의 커밋을 받으려고
+    public MemberSnapshotLookup(DataSource dataSource, MemberSnapshotProperties properties, EntityManagerFactory emf) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.properties = properties;
+        this.emf = emf;
+        this.lastRebuildNanos = System.nanoTime() - properties.getMinRebuildInterval().toNanos(); //처음은 바로
+    }
+
+    @PostConstruct
+    public void start() {
+        CacheVersions.addCommitListener(emf, commitListener);
+        long start = System.nanoTime();
+        try {
+            snapshot = MemberLookupSnapshot.open(properties.getFile());
+        } catch (IOException e) {
+            log.warn("member snapshot open failed: {}", properties.getFile(), e);
+        }
+        if (snapshot != null && snapshot.getVersion().equals(dataVersion())) {
+            fresh = true;
+            log.info("member snapshot mapped: {} members in {} ms", snapshot.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } else {
+            requestRefresh();
+        }
+
+        long interval = properties.getCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public Optional<MemberTeamDto> findById(Long id) {
+        MemberLookupSnapshot current = snapshot;
+        if (fresh && current != null) {
+            return Optional.ofNullable(current.findById(id));
+        }
+        return jdbcTemplate.query(SELECT + " where m.member_id = ?", ROW_MAPPER, id).stream().findFirst();
+    }
+
+    //스냅샷, DB 모두 member_id 순
+    public List<MemberTeamDto> findByUsername(String username) {
+        MemberLookupSnapshot current = snapshot;
+        if (fresh && current != null) {
+            return current.findByUsername(username);
+        }
+        return jdbcTemplate.query(SELECT + " where m.username = ? order by m.member_id", ROW_MAPPER, username);
+    }
+
+    public boolean isFresh() {
+        return fresh;
+    }
+
+    MemberLookupSnapshot current() {
+        return snapshot;
+    }
+
+    @EventListener
+    public void onChange(CacheVersionChangedEvent event) {
+        MemberLookupSnapshot current = snapshot;
+        if (fresh && current != null && seen(current.getVersion(), event)) {
+            return; //이 노드의 커밋으로 이미 다시 만든 버전 (폴링이 뒤늦게 알려준 것)
+        }
+        onLocalCommit(event.getEntityType());
+    }
+
+    private void onLocalCommit(String entityType) {
+        if (CacheVersions.MEMBER.equals(entityType) || CacheVersions.TEAM.equals(entityType)) {
+            changes.incrementAndGet(); //fresh보다 먼저 > refresh()의 재확인에서 놓치지 않는다
+            fresh = false;
+            requestRefresh();
+        }
+    }
+
+    public void shutdown() {
+        CacheVersions.removeCommitListener(emf, commitListener);
+        scheduler.shutdownNow();
+    }
+
+    private static boolean seen(MemberLookupSnapshot.DataVersion version, CacheVersionChangedEvent event) {
+        if (CacheVersions.MEMBER.equals(event.getEntityType())) {
+            return version.getMemberVersion() >= event.getVersion();
+        }
+        if (CacheVersions.TEAM.equals(event.getEntityType())) {
+            return version.getTeamVersion() >= event.getVersion();
+        }
+        return true; //관심 없는 종류
+    }
+
+    private void requestRefresh() {
+        if (refreshQueued.compareAndSet(false, true)) { //이미 대기중이면 그걸로 충분 (그 사이 변경은 한 번에 반영)
+            long delay = lastRebuildNanos + properties.getMinRebuildInterval().toNanos() - System.nanoTime();
+            scheduler.schedule(() -> {
+                refreshQueued.set(false);
+                refreshQuietly();
+            }, Math.max(delay, 0), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (IOException | RuntimeException e) {
+            log.warn("member snapshot refresh failed", e); //다음 주기에 다시, 그동안은 DB에서
+        }
+    }
+
+    //스케줄러 스레드 하나에서만 호출
+    void refresh() throws IOException {
+        long generation = changes.get();
+        MemberLookupSnapshot.DataVersion version = dataVersion();
+        MemberLookupSnapshot current = snapshot;
+        if (current == null || !current.getVersion().equals(version)) {
+            long start = System.nanoTime();
+            lastRebuildNanos = start;
+            //버전을 먼저 읽고 데이터를 읽는다 > 그 사이의 커밋은 다음 비교에서 버전 차이로 잡힌다
+            List<MemberTeamDto> rows = loadRows();
+            snapshot = MemberLookupSnapshot.write(properties.getFile(), rows, version); //이전 mapping은 GC 때 해제된다
+            log.info("member snapshot written: {} members in {} ms", rows.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        if (changes.get() == generation) {
+            fresh = true;
+            if (changes.get() == generation) {
+                return;
+            }
+            fresh = false; //확인과 fresh = true 사이에 바뀌었다
+        }
+        requestRefresh(); //만드는 동안 또 바뀌었다
+    }
+
+    List<MemberTeamDto> loadRows() {
+        return jdbcTemplate.query(SELECT + " order by m.member_id", ROW_MAPPER);
+    }
+
+    private MemberLookupSnapshot.DataVersion dataVersion() {
+        long[] versions = new long[2];
+        jdbcTemplate.query("select entity_type, version from cache_version", resultSet -> {
+            if (CacheVersions.MEMBER.equals(resultSet.getString(1))) {
+                versions[0] = resultSet.getLong(2);
+            } else if (CacheVersions.TEAM.equals(resultSet.getString(1))) {
+                versions[1] = resultSet.getLong(2);
+            }
+        });
+        return jdbcTemplate.queryForObject("select count(*), coalesce(max(member_id), 0) from member",
+                (resultSet, rowNum) -> new MemberLookupSnapshot.DataVersion(versions[0], versions[1], resultSet.getInt(1), resultSet.getLong(2)));
+    }
+}
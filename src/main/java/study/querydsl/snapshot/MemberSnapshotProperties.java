@@ -0,0 +1,19 @@
+package study.querydsl.snapshot;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "member-snapshot")
+public class MemberSnapshotProperties {
+
+    private boolean enabled = false;
+    private Path file = Paths.get("data", "member-snapshot.bin");
+    private Duration checkInterval = Duration.ofSeconds(30); //이벤트를 놓쳐도 이 주기로 DB 상태와 비교해서 다시 만든다
+    private Duration minRebuildInterval = Duration.ofSeconds(5); //변경 이벤트로 다시 만드는 최소 간격 (그 사이 변경은 모아서 한 번에, 그동안은 DB에서)
+}
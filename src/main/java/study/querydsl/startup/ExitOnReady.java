@@ -0,0 +1,26 @@
+package study.querydsl.startup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * AppCDS 학습 실행(-XX:ArchiveClassesAtExit)과 기동시간 벤치마크용
+ * 기동이 끝나면 바로 종료해서 그때까지 로드된 클래스가 archive에 담기게 한다
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "startup", name = "exit-on-ready", havingValue = "true")
+public class ExitOnReady {
+
+    private final ApplicationContext context;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exit() {
+        System.exit(SpringApplication.exit(context));
+    }
+}
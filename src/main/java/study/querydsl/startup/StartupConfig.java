@@ -0,0 +1,25 @@
+package study.querydsl.startup;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class StartupConfig {
+
+    /**
+     * spring.main.lazy-initialization=true 일 때도 웹 계층은 바로 만든다
+     * (첫 요청이 컨트롤러 > 리포지토리 > EntityManagerFactory 초기화 비용을 다 떠안지 않도록)
+     */
+    @Bean
+    static LazyInitializationExcludeFilter webLayerEagerInitialization() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                || HandlerInterceptor.class.isAssignableFrom(beanType)
+                || WebMvcConfigurer.class.isAssignableFrom(beanType));
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.timing;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 요청 하나의 시간 분해 (Server-Timing 헤더)
+ * 요청 스레드, Callable 실행 스레드에 차례로 걸린다 (동시에 두 스레드가 쓰지는 않지만 스레드가 바뀌므로 atomic)
+ */
+public class RequestTimings {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    final long startNanos = System.nanoTime();
+    final AtomicLong sqlNanos = new AtomicLong();
+    final AtomicInteger statements = new AtomicInteger();
+    final AtomicInteger entities = new AtomicInteger();
+    final AtomicInteger collections = new AtomicInteger();
+    final AtomicLong queueNanos = new AtomicLong(); //Callable 실행 대기
+    final AtomicLong handlerNanos = new AtomicLong(); //Callable 실행
+    final AtomicLong serializationNanos = new AtomicLong();
+    volatile long concurrentStartNanos;
+
+    static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    static void bind(RequestTimings timings) {
+        CURRENT.set(timings);
+    }
+
+    static void unbind() {
+        CURRENT.remove();
+    }
+
+    static void sql(long nanos, boolean statement) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.sqlNanos.addAndGet(nanos);
+            if (statement) {
+                timings.statements.incrementAndGet();
+            }
+        }
+    }
+
+    static void entityLoaded() {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.entities.incrementAndGet();
+        }
+    }
+
+    static void collectionLoaded() {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.collections.incrementAndGet();
+        }
+    }
+
+    static void serialized(long nanos) {
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.serializationNanos.addAndGet(nanos);
+        }
+    }
+}
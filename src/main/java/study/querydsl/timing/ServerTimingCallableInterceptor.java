@@ -0,0 +1,50 @@
+package study.querydsl.timing;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Callable 실행 스레드에 RequestTimings를 걸고, 실행 대기 시간과 실행 시간을 잰다
+ */
+@Component
+public class ServerTimingCallableInterceptor implements CallableProcessingInterceptor {
+
+    private static final String HANDLER_START = ServerTimingCallableInterceptor.class.getName() + ".HANDLER_START";
+
+    @Override
+    public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+        RequestTimings timings = timings(request);
+        if (timings != null) {
+            timings.concurrentStartNanos = System.nanoTime();
+        }
+    }
+
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        RequestTimings timings = timings(request);
+        if (timings != null) {
+            long now = System.nanoTime();
+            timings.queueNanos.addAndGet(now - timings.concurrentStartNanos);
+            request.setAttribute(HANDLER_START, now, RequestAttributes.SCOPE_REQUEST);
+            RequestTimings.bind(timings);
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        RequestTimings timings = timings(request);
+        Long start = (Long) request.getAttribute(HANDLER_START, RequestAttributes.SCOPE_REQUEST);
+        if (timings != null && start != null) {
+            timings.handlerNanos.addAndGet(System.nanoTime() - start);
+        }
+        RequestTimings.unbind();
+    }
+
+    private RequestTimings timings(NativeWebRequest request) {
+        return (RequestTimings) request.getAttribute(ServerTimingFilter.TIMINGS, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -0,0 +1,30 @@
+package study.querydsl.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@RequiredArgsConstructor
+public class ServerTimingConfig implements WebMvcConfigurer {
+
+    private final ServerTimingCallableInterceptor serverTimingCallableInterceptor;
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(serverTimingCallableInterceptor);
+    }
+
+    //기본 Jackson 컨버터 대신 (spring boot는 이 타입의 빈이 있으면 그것을 쓴다)
+    //같은 ObjectMapper를 그대로 쓰므로 JSON 결과는 같다, server-timing을 끄면 boot 기본 컨버터로
+    @Bean
+    @ConditionalOnProperty(name = "server-timing.enabled", havingValue = "true", matchIfMissing = true)
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new TimedJackson2HttpMessageConverter(objectMapper);
+    }
+}
@@ -0,0 +1,94 @@
+package study.querydsl.timing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+import study.querydsl.bulkhead.BulkheadInterceptor;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 샘플링된 요청에 Server-Timing 헤더를 단다
+ * queue(bulkhead + 비동기 실행 대기), db(SQL 시간, statement 수), app(핸들러 - SQL: 엔티티/DTO 변환 등), ser(JSON 쓰기), total
+ * 헤더는 본문보다 먼저 나가야 하므로 샘플링된 요청만 응답을 버퍼링했다가 마지막에 내보낸다
+ * Callable 핸들러는 첫 디스패치에서 끝나지 않는다 > 비동기 재디스패치가 끝날 때 헤더를 단다
+ */
+@Component
+@RequiredArgsConstructor
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    static final String TIMINGS = ServerTimingFilter.class.getName() + ".TIMINGS";
+
+    private final ServerTimingProperties properties;
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestTimings timings = (RequestTimings) request.getAttribute(TIMINGS);
+        if (timings == null) {
+            if (!properties.isEnabled() || isAsyncDispatch(request) || !sampled()) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            timings = new RequestTimings();
+            request.setAttribute(TIMINGS, timings);
+        }
+
+        ContentCachingResponseWrapper wrapper = WebUtils.getNativeResponse(response, ContentCachingResponseWrapper.class);
+        if (wrapper == null) {
+            wrapper = new ContentCachingResponseWrapper(response);
+        }
+
+        RequestTimings.bind(timings);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            RequestTimings.unbind();
+        }
+
+        if (!request.isAsyncStarted()) {
+            wrapper.setHeader("Server-Timing", header(request, timings));
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private boolean sampled() {
+        return properties.getSampleRate() >= 1 || ThreadLocalRandom.current().nextDouble() < properties.getSampleRate();
+    }
+
+    private String header(HttpServletRequest request, RequestTimings timings) {
+        long total = System.nanoTime() - timings.startNanos;
+        Object bulkheadWait = request.getAttribute(BulkheadInterceptor.QUEUE_WAIT);
+        long queue = timings.queueNanos.get() + (bulkheadWait != null ? (Long) bulkheadWait : 0);
+        long sql = timings.sqlNanos.get();
+        long handler = timings.handlerNanos.get();
+        long serialization = timings.serializationNanos.get();
+        if (handler == 0) { //동기 핸들러 > 핸들러 시간을 따로 재지 않았다
+            handler = Math.max(0, total - queue - serialization);
+        }
+
+        return metric("queue", queue, null)
+                + ", " + metric("db", sql, "statements=" + timings.statements.get())
+                + ", " + metric("app", Math.max(0, handler - sql), "entities=" + timings.entities.get() + " collections=" + timings.collections.get())
+                + ", " + metric("ser", serialization, null)
+                + ", " + metric("total", total, null);
+    }
+
+    private String metric(String name, long nanos, String description) {
+        String metric = name + ";dur=" + String.format(Locale.ROOT, "%.1f", nanos / 1_000_000.0);
+        return description != null ? metric + ";desc=\"" + description + "\"" : metric;
+    }
+}
@@ -0,0 +1,43 @@
+package study.querydsl.timing;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.InitializeCollectionEvent;
+import org.hibernate.event.spi.InitializeCollectionEventListener;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * 샘플링된 요청이 로딩한 엔티티, 컬렉션 수
+ */
+@Component
+@RequiredArgsConstructor
+public class ServerTimingLoadListener implements PostLoadEventListener, InitializeCollectionEventListener {
+
+    private final EntityManagerFactory emf;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_LOAD, this);
+        registry.appendListeners(EventType.INIT_COLLECTION, this); //기본 리스너(실제 로딩) 다음에 호출된다
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestTimings.entityLoaded();
+    }
+
+    @Override
+    public void onInitializeCollection(InitializeCollectionEvent event) {
+        RequestTimings.collectionLoaded();
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.timing;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "server-timing")
+public class ServerTimingProperties {
+
+    private boolean enabled = true;
+    private double sampleRate = 0.05; //0~1, 샘플링된 요청만 응답을 버퍼링하고 헤더를 단다
+}
@@ -0,0 +1,25 @@
+package study.querydsl.timing;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * 샘플링된 요청의 SQL 시간 (실행 + ResultSet 읽기), statement 수
+ */
+@Component
+public class ServerTimingSqlListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        RequestTimings.sql(timeElapsedNanos, true);
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        RequestTimings.sql(timeElapsedNanos, false);
+    }
+}
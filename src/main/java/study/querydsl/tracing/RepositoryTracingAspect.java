@@ -0,0 +1,67 @@
+package study.querydsl.tracing;
+
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.ClassUtils;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.lang.reflect.Proxy;
+
+/**
+ * 리포지토리 메소드마다 span (검색 조건 모양, 페이지 크기)
+ * 요청 span 안에서만 만든다 > warm-up, 초기 데이터 입력 같은 요청 밖의 호출은 trace를 만들지 않음
+ * Spring Data 리포지토리는 프록시 > 커스텀 구현(*Impl) 빈까지 잡으면 호출 하나에 span이 두 개 > Impl은 제외
+ * Impl이 위임하는 MemberJpaSearch도 같은 이유로 제외
+ */
+@Aspect
+@RequiredArgsConstructor
+public class RepositoryTracingAspect {
+
+    private final Tracer tracer;
+
+    @Around("execution(public * study.querydsl.repository..*Repository*.*(..)) && !within(study.querydsl.repository..*Impl)"
+            + " && !within(study.querydsl.repository.MemberJpaSearch)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!Span.current().getSpanContext().isValid()) {
+            return joinPoint.proceed();
+        }
+
+        String method = typeOf(joinPoint.getTarget()).getSimpleName() + "." + joinPoint.getSignature().getName();
+        Span span = tracer.spanBuilder(method)
+                .setAttribute("code.function", method)
+                .startSpan();
+        for (Object arg : joinPoint.getArgs()) {
+            if (arg instanceof MemberSearchCondition) {
+                span.setAttribute("member.search.shape", ((MemberSearchCondition) arg).shape());
+            } else if (arg instanceof Pageable && ((Pageable) arg).isPaged()) {
+                span.setAttribute("page.size", ((Pageable) arg).getPageSize());
+            }
+        }
+
+        try (Scope ignored = span.makeCurrent()) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            span.recordException(e);
+            span.setStatus(StatusCode.ERROR);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    //Spring Data 리포지토리(JDK 프록시)는 선언 타입(MemberRepositoryCustom, CrudRepository ...) 대신 리포지토리 인터페이스 이름으로
+    private Class<?> typeOf(Object target) {
+        if (Proxy.isProxyClass(target.getClass())) {
+            return AopProxyUtils.proxiedUserInterfaces(target)[0];
+        }
+        return ClassUtils.getUserClass(target);
+    }
+}
@@ -0,0 +1,183 @@
+package study.querydsl.tracing;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import lombok.RequiredArgsConstructor;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * SQL 실행마다 CLIENT span (p6spy)
+ * select는 ResultSet을 닫을 때까지(읽는 시간 포함) 열어두고 읽은 행 수를 db.rows로,
+ * insert/update/delete는 db.rows_affected로 남긴다
+ * db.statement에는 바인딩 값 없이 ? 그대로
+ * 샘플링되지 않은 요청은 공유 map을 건드리지 않는다 (행마다 synchronized)
+ * ResultSet은 쿼리를 실행한 리포지토리 호출 안에서 닫히므로 span 시작/끝 모두 같은 (샘플링된) context에서 불린다
+ */
+@RequiredArgsConstructor
+public class SqlTracingListener extends SimpleJdbcEventListener {
+
+    //ResultSet을 안닫고 버려진 statement가 남지 않게 weak (StatementInformation은 equals를 재정의하지 않음 > identity)
+    private final Map<StatementInformation, SqlSpan> spans = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Tracer tracer;
+
+    @Override
+    public void onBeforeAnyExecute(StatementInformation statementInformation) {
+        if (!sampled()) { //샘플링된 요청 span 안에서만
+            return;
+        }
+        String sql = statementInformation.getSql();
+        Span span = tracer.spanBuilder(operation(sql))
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute("db.system", "h2")
+                .setAttribute("db.statement", sql)
+                .startSpan();
+        SqlSpan previous = spans.put(statementInformation, new SqlSpan(span));
+        if (previous != null) { //같은 statement 재실행 > 이전 ResultSet은 닫힌 것
+            previous.end();
+        }
+    }
+
+    @Override
+    public void onAfterExecuteQuery(PreparedStatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        markQuery(statementInformation);
+        super.onAfterExecuteQuery(statementInformation, timeElapsedNanos, e);
+    }
+
+    @Override
+    public void onAfterExecuteQuery(StatementInformation statementInformation, long timeElapsedNanos, String sql, SQLException e) {
+        markQuery(statementInformation);
+        super.onAfterExecuteQuery(statementInformation, timeElapsedNanos, sql, e);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos, int rowCount, SQLException e) {
+        rowsAffected(statementInformation, rowCount);
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, rowCount, e);
+    }
+
+    @Override
+    public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql, int rowCount, SQLException e) {
+        rowsAffected(statementInformation, rowCount);
+        super.onAfterExecuteUpdate(statementInformation, timeElapsedNanos, sql, rowCount, e);
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+        if (!sampled()) {
+            return;
+        }
+        long rows = 0;
+        for (int count : updateCounts) {
+            rows += Math.max(count, 0); //SUCCESS_NO_INFO(-2)는 빼고
+        }
+        SqlSpan sqlSpan = spans.get(statementInformation);
+        if (sqlSpan != null) {
+            sqlSpan.span.setAttribute("db.batch_size", updateCounts.length);
+            sqlSpan.span.setAttribute("db.rows_affected", rows);
+        }
+        super.onAfterExecuteBatch(statementInformation, timeElapsedNanos, updateCounts, e);
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!sampled()) {
+            return;
+        }
+        SqlSpan sqlSpan = spans.get(statementInformation);
+        if (sqlSpan == null) {
+            return;
+        }
+        if (e != null) {
+            sqlSpan.span.recordException(e);
+            sqlSpan.span.setStatus(StatusCode.ERROR);
+        }
+        if (e != null || !sqlSpan.query) {
+            spans.remove(statementInformation);
+            sqlSpan.end();
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        if (hasNext && sampled()) {
+            SqlSpan sqlSpan = spans.get(resultSetInformation.getStatementInformation());
+            if (sqlSpan != null) {
+                sqlSpan.rows++;
+            }
+        }
+    }
+
+    @Override
+    public void onAfterResultSetClose(ResultSetInformation resultSetInformation, SQLException e) {
+        if (!sampled()) {
+            return;
+        }
+        SqlSpan sqlSpan = spans.remove(resultSetInformation.getStatementInformation());
+        if (sqlSpan != null) {
+            sqlSpan.end();
+        }
+    }
+
+    private void markQuery(StatementInformation statementInformation) {
+        if (!sampled()) {
+            return;
+        }
+        SqlSpan sqlSpan = spans.get(statementInformation);
+        if (sqlSpan != null) {
+            sqlSpan.query = true;
+        }
+    }
+
+    private void rowsAffected(StatementInformation statementInformation, int rowCount) {
+        if (!sampled()) {
+            return;
+        }
+        SqlSpan sqlSpan = spans.get(statementInformation);
+        if (sqlSpan != null) {
+            sqlSpan.span.setAttribute("db.rows_affected", rowCount);
+        }
+    }
+
+    private static boolean sampled() {
+        return Span.current().getSpanContext().isSampled();
+    }
+
+    //첫 단어 (SELECT, INSERT, ...)
+    private static String operation(String sql) {
+        String trimmed = sql.trim();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+            end++;
+        }
+        return end > 0 ? trimmed.substring(0, end).toUpperCase(Locale.ROOT) : "SQL";
+    }
+
+    private static class SqlSpan {
+
+        private final Span span;
+        private boolean query;
+        private long rows;
+
+        private SqlSpan(Span span) {
+            this.span = span;
+        }
+
+        private void end() {
+            if (query) {
+                span.setAttribute("db.rows", rows);
+            }
+            span.end();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package study.querydsl.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.exporter.otlp.trace.OtlpGrpcSpanExporter;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * tracing.enabled=true 일 때만 등록
+ * 컨트롤러 호출(TracingInterceptor) > 리포지토리 메소드(RepositoryTracingAspect) > SQL(SqlTracingListener)
+ */
+@Configuration
+@EnableConfigurationProperties(TracingProperties.class)
+@ConditionalOnProperty(prefix = "tracing", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class TracingConfig {
+
+    private final TracingProperties properties;
+
+    @Bean(destroyMethod = "close") //남은 span을 내보내고 종료
+    public OpenTelemetrySdk openTelemetry(ObjectProvider<SpanExporter> extraExporters) {
+        Resource resource = Resource.getDefault()
+                .merge(Resource.create(Attributes.of(AttributeKey.stringKey("service.name"), properties.getServiceName())));
+
+        SdkTracerProviderBuilder tracerProvider = SdkTracerProvider.builder()
+                .setResource(resource)
+                .setSampler(Sampler.parentBased(Sampler.traceIdRatioBased(properties.getSampleRatio())))
+                .addSpanProcessor(BatchSpanProcessor.builder(exporter()).build());
+        //추가 exporter 빈이 있으면 같이 (테스트의 InMemorySpanExporter 등)
+        extraExporters.orderedStream().forEach(exporter -> tracerProvider.addSpanProcessor(SimpleSpanProcessor.create(exporter)));
+
+        return OpenTelemetrySdk.builder()
+                .setTracerProvider(tracerProvider.build())
+                .setPropagators(ContextPropagators.create(W3CTraceContextPropagator.getInstance())) //traceparent 헤더
+                .build();
+    }
+
+    @Bean
+    public Tracer tracer(OpenTelemetrySdk openTelemetry) {
+        return openTelemetry.getTracer("study.querydsl");
+    }
+
+    @Bean
+    public TracingInterceptor tracingInterceptor(OpenTelemetrySdk openTelemetry, Tracer tracer) {
+        return new TracingInterceptor(openTelemetry.getPropagators(), tracer);
+    }
+
+    @Bean
+    public RepositoryTracingAspect repositoryTracingAspect(Tracer tracer) {
+        return new RepositoryTracingAspect(tracer);
+    }
+
+    @Bean
+    public SqlTracingListener sqlTracingListener(Tracer tracer) {
+        return new SqlTracingListener(tracer);
+    }
+
+    private SpanExporter exporter() {
+        if (properties.getExporter() == TracingProperties.Exporter.OTLP) {
+            return OtlpGrpcSpanExporter.builder().setEndpoint(properties.getOtlpEndpoint()).build();
+        }
+        return LoggingSpanExporter.create();
+    }
+}
@@ -0,0 +1,126 @@
+package study.querydsl.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.context.propagation.TextMapGetter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+
+/**
+ * 컨트롤러 호출마다 SERVER span (traceparent 헤더가 있으면 그 trace에 이어서)
+ * Callable 핸들러는 비동기 재디스패치가 끝날 때(afterCompletion) span을 닫고,
+ * Callable 실행 스레드에도 span을 걸어서 리포지토리, SQL span이 그 아래로 들어가게 한다
+ */
+@RequiredArgsConstructor
+public class TracingInterceptor implements AsyncHandlerInterceptor, CallableProcessingInterceptor {
+
+    private static final String SPAN = TracingInterceptor.class.getName() + ".SPAN";
+    private static final String SCOPE = TracingInterceptor.class.getName() + ".SCOPE";
+    private static final ThreadLocal<Scope> ASYNC_SCOPE = new ThreadLocal<>();
+
+    private static final TextMapGetter<HttpServletRequest> HEADERS = new TextMapGetter<HttpServletRequest>() {
+        @Override
+        public Iterable<String> keys(HttpServletRequest request) {
+            return Collections.list(request.getHeaderNames());
+        }
+
+        @Override
+        public String get(HttpServletRequest request, String key) {
+            return request == null ? null : request.getHeader(key);
+        }
+    };
+
+    private final ContextPropagators propagators;
+    private final Tracer tracer;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        Span span = (Span) request.getAttribute(SPAN);
+        if (span == null) { //비동기 재디스패치 때는 처음 만든 것을 그대로 사용
+            span = start(request, (HandlerMethod) handler);
+            request.setAttribute(SPAN, span);
+        }
+        request.setAttribute(SCOPE, span.makeCurrent());
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        closeScope(request);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        closeScope(request);
+        Span span = (Span) request.getAttribute(SPAN);
+        if (span == null) {
+            return;
+        }
+        span.setAttribute(AttributeKey.longKey("http.status_code"), response.getStatus());
+        if (ex != null) {
+            span.recordException(ex);
+        }
+        if (ex != null || response.getStatus() >= 500) {
+            span.setStatus(StatusCode.ERROR);
+        }
+        span.end();
+    }
+
+    //Callable 실행 스레드
+    @Override
+    public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+        Span span = (Span) request.getAttribute(SPAN, RequestAttributes.SCOPE_REQUEST);
+        if (span != null) {
+            ASYNC_SCOPE.set(span.makeCurrent());
+        }
+    }
+
+    @Override
+    public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+        Scope scope = ASYNC_SCOPE.get();
+        if (scope != null) {
+            ASYNC_SCOPE.remove();
+            scope.close();
+        }
+    }
+
+    private Span start(HttpServletRequest request, HandlerMethod handler) {
+        Context parent = propagators.getTextMapPropagator().extract(Context.current(), request, HEADERS);
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String path = route != null ? route.toString() : request.getRequestURI();
+        return tracer.spanBuilder(request.getMethod() + " " + path)
+                .setParent(parent)
+                .setSpanKind(SpanKind.SERVER)
+                .setAttribute("http.method", request.getMethod())
+                .setAttribute("http.route", path)
+                .setAttribute("code.function", handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName())
+                .startSpan();
+    }
+
+    private void closeScope(HttpServletRequest request) {
+        Scope scope = (Scope) request.getAttribute(SCOPE);
+        if (scope != null) {
+            request.removeAttribute(SCOPE);
+            scope.close();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package study.querydsl.tracing;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "tracing")
+public class TracingProperties {
+
+    private boolean enabled = false;
+    private String serviceName = "querydsl";
+    private double sampleRatio = 1.0; //요청(루트 span) 기준 샘플링 비율, 하위 span은 부모를 따른다
+    private Exporter exporter = Exporter.LOGGING;
+    private String otlpEndpoint = "http://localhost:4317"; //exporter: otlp 일 때 (grpc)
+
+    public enum Exporter {
+        LOGGING, //로그로 출력 (collector 없이 로컬에서 확인)
+        OTLP
+    }
+}
@@ -0,0 +1,26 @@
+package study.querydsl.tracing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@ConditionalOnProperty(prefix = "tracing", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class TracingWebConfig implements WebMvcConfigurer {
+
+    private final TracingInterceptor tracingInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(tracingInterceptor).order(-1); //bulkhead 대기도 span 안에 들어가게 먼저
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(tracingInterceptor);
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.warmup;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter @Setter
+@Component
+@ConfigurationProperties(prefix = "warmup")
+public class WarmUpProperties {
+
+    private boolean enabled = true;
+    private int iterations = 200;
+    private Duration maxDuration = Duration.ofSeconds(30); //warm-up이 길어져서 배포가 막히지 않도록
+    private List<MemberSearchCondition> shapes = new ArrayList<>(); //비어있으면 조건 없는 검색 한가지
+    private List<Integer> pageSizes = new ArrayList<>(List.of(20));
+}
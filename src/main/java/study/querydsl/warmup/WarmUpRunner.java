@@ -0,0 +1,82 @@
+package study.querydsl.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 배포 직후 첫 요청들이 느린 문제 (JIT, HQL plan cache, querydsl 직렬화, prepared statement가 다 차가운 상태)
+ * ApplicationRunner는 readiness가 ACCEPTING_TRAFFIC 되기 전에 실행된다 > 여기서 대표적인 검색을 미리 돌려두자
+ * 실제 datasource에 읽기 전용 트랜잭션으로만 실행한다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WarmUpRunner implements ApplicationRunner {
+
+    private final WarmUpProperties properties;
+    private final MemberJpaRepository memberJpaRepository;
+    private final MemberRepository memberRepository;
+    private final PlatformTransactionManager transactionManager;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        List<MemberSearchCondition> shapes = properties.getShapes().isEmpty()
+                ? List.of(new MemberSearchCondition())
+                : properties.getShapes();
+
+        long start = System.nanoTime();
+        long deadline = start + properties.getMaxDuration().toNanos();
+        long firstRound = 0;
+        long lastRound = 0;
+        int rounds = 0;
+        while (rounds < properties.getIterations() && System.nanoTime() < deadline) {
+            long roundStart = System.nanoTime();
+            readOnly.executeWithoutResult(status -> runShapes(shapes));
+            lastRound = System.nanoTime() - roundStart;
+            if (rounds == 0) {
+                firstRound = lastRound; //제일 차가운 상태
+            }
+            rounds++;
+        }
+        long total = System.nanoTime() - start;
+
+        Timer.builder("warmup.duration").register(meterRegistry).record(total, TimeUnit.NANOSECONDS);
+        Timer.builder("warmup.round").tag("round", "first").register(meterRegistry).record(firstRound, TimeUnit.NANOSECONDS);
+        Timer.builder("warmup.round").tag("round", "last").register(meterRegistry).record(lastRound, TimeUnit.NANOSECONDS);
+        log.info("warm-up finished: {} rounds in {} ms, round latency {} us (cold) -> {} us (warm)",
+                rounds, TimeUnit.NANOSECONDS.toMillis(total),
+                TimeUnit.NANOSECONDS.toMicros(firstRound), TimeUnit.NANOSECONDS.toMicros(lastRound));
+    }
+
+    private void runShapes(List<MemberSearchCondition> shapes) {
+        for (MemberSearchCondition condition : shapes) {
+            memberJpaRepository.search(condition); // /v1/members
+            memberRepository.search(condition);
+            for (Integer pageSize : properties.getPageSizes()) {
+                memberRepository.searchPageSimple(condition, PageRequest.of(0, pageSize));
+                memberRepository.searchPageComplex(condition, PageRequest.of(0, pageSize));
+            }
+        }
+    }
+}
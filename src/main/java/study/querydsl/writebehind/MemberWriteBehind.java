@@ -0,0 +1,160 @@
+package study.querydsl.writebehind;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 저장 write-behind (group commit)
+ * save()는 대기열에 넣고 바로 반환 > writer 스레드가 여러 건을 트랜잭션 하나로 묶어서 커밋 (건수 maxBatch 또는 시간 window)
+ * - 반환한 CompletableFuture는 커밋이 끝나야 완료 (값은 회원 id)
+ * - 대기열이 가득 차면 offerTimeout까지 기다리고 그래도 안되면 WriteBehindFullException (backpressure)
+ * - 묶음 커밋이 실패하면 한 건씩 다시 커밋 > 잘못된 한 건 때문에 나머지가 같이 실패하지 않게
+ */
+@Slf4j
+public class MemberWriteBehind {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteBehindProperties properties;
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private final DistributionSummary batchSize;
+    private final Timer commitTimer;
+    private volatile boolean running = true;
+
+    public MemberWriteBehind(EntityManager em, PlatformTransactionManager transactionManager,
+                             WriteBehindProperties properties, MeterRegistry meterRegistry) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+        this.batchSize = DistributionSummary.builder("write-behind.batch.size").register(meterRegistry);
+        this.commitTimer = Timer.builder("write-behind.commit").register(meterRegistry);
+        Gauge.builder("write-behind.queue.size", queue, BlockingQueue::size).register(meterRegistry);
+
+        this.writer = new Thread(this::run, "member-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public CompletableFuture<Long> save(Member member) {
+        if (!running) {
+            throw new IllegalStateException("write-behind stopped");
+        }
+        Pending pending = new Pending(member, new CompletableFuture<>());
+        try {
+            if (!queue.offer(pending, properties.getOfferTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new WriteBehindFullException(properties.getCapacity());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteBehindFullException(properties.getCapacity());
+        }
+        //running 확인과 offer 사이에 shutdown()이 끝났으면 아무도 꺼내지 않는다 > 직접 빼고 실패 처리
+        if (!running && queue.remove(pending)) {
+            pending.future.completeExceptionally(new IllegalStateException("write-behind stopped"));
+        }
+        return pending.future;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(properties.getMaxBatch());
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("write-behind batch failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    //첫 건부터 window 동안, 최대 maxBatch까지 모은다
+    private void collect(List<Pending> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + properties.getWindow().toNanos();
+        while (batch.size() < properties.getMaxBatch()) {
+            queue.drainTo(batch, properties.getMaxBatch() - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= properties.getMaxBatch() || remaining <= 0 || !running) {
+                return;
+            }
+            Pending next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        batchSize.record(batch.size());
+        try {
+            commitTimer.record(() -> commit(batch));
+            for (Pending pending : batch) {
+                pending.future.complete(pending.member.getId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("write-behind group commit failed, retrying {} members one by one", batch.size(), e);
+            for (Pending pending : batch) {
+                try {
+                    pending.member.setId(null); //롤백된 트랜잭션에서 받은 id > 그대로 두면 persist가 준영속으로 본다
+                    commit(List.of(pending));
+                    pending.future.complete(pending.member.getId());
+                } catch (RuntimeException single) {
+                    pending.future.completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private void commit(List<Pending> pendings) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Pending pending : pendings) {
+                em.persist(pending.member);
+            }
+            em.flush(); //hibernate.jdbc.batch_size 단위로 insert batch
+            em.clear(); //writer 스레드의 영속성 컨텍스트가 커지지 않게
+        });
+    }
+
+    //더 받지 않고, 대기열에 남은 것까지 쓰고 끝낸다
+    public void shutdown() throws InterruptedException {
+        running = false; //writer는 대기열이 빌 때까지 돌고 끝난다 (interrupt는 커밋 도중 JDBC를 깨뜨릴 수 있어서 안함)
+        writer.join(10_000);
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future.completeExceptionally(new IllegalStateException("write-behind stopped"));
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Pending {
+        private final Member member;
+        private final CompletableFuture<Long> future;
+    }
+}
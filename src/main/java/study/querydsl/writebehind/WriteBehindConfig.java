@@ -0,0 +1,25 @@
+package study.querydsl.writebehind;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+
+/**
+ * write-behind.enabled=true 일 때만 등록
+ */
+@Configuration
+@EnableConfigurationProperties(WriteBehindProperties.class)
+@ConditionalOnProperty(prefix = "write-behind", name = "enabled", havingValue = "true")
+public class WriteBehindConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public MemberWriteBehind memberWriteBehind(EntityManager em, PlatformTransactionManager transactionManager,
+                                               WriteBehindProperties properties, MeterRegistry meterRegistry) {
+        return new MemberWriteBehind(em, transactionManager, properties, meterRegistry);
+    }
+}
@@ -0,0 +1,12 @@
+package study.querydsl.writebehind;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteBehindFullException extends RuntimeException {
+
+    public WriteBehindFullException(int capacity) {
+        super("write-behind queue full: " + capacity);
+    }
+}
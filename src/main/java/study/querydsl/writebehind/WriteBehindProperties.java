@@ -0,0 +1,18 @@
+package study.querydsl.writebehind;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Getter @Setter
+@ConfigurationProperties(prefix = "write-behind")
+public class WriteBehindProperties {
+
+    private boolean enabled = false;
+    private int capacity = 10_000; //대기열 크기 (가득 차면 호출한 쪽이 offerTimeout까지 기다린다)
+    private int maxBatch = 500; //트랜잭션 하나에 담는 최대 건수
+    private Duration window = Duration.ofMillis(10); //첫 건이 들어오고 이 시간 동안 더 모아서 커밋
+    private Duration offerTimeout = Duration.ofSeconds(1);
+}
@@ -0,0 +1,19 @@
+-- hibernate(ddl-auto)가 만드는 member, team 테이블과 같은 구조
+-- querydsl-sql 메타데이터 생성(generateQuerydslSql), 샤드 DB 초기화(sharding.initialize-schema)에 사용
+-- 샤드 DB는 파일/tcp라 재기동하면 테이블이 이미 있다 > 여러번 실행해도 되게 if not exists
+create table if not exists team (
+    id bigint not null,
+    name varchar(255),
+    primary key (id)
+);
+
+create table if not exists member (
+    member_id bigint not null,
+    age integer not null,
+    username varchar(255),
+    team_id bigint,
+    primary key (member_id)
+);
+
+alter table member add constraint if not exists fk_member_team foreign key (team_id) references team;
+create index if not exists idx_member_username on member (username);
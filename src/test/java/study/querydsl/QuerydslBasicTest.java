@@ -26,6 +26,8 @@ import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.QTeam;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberBulkOperations;
+import study.querydsl.support.StatementBudget;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -46,6 +48,9 @@ public class QuerydslBasicTest {
 
     JPAQueryFactory queryFactory;
 
+    @Autowired
+    MemberBulkOperations memberBulkOperations;
+
     @BeforeEach
     public void before() {
         queryFactory = new JPAQueryFactory(em);
@@ -66,6 +71,7 @@ public class QuerydslBasicTest {
     }
 
     @Test
+    @StatementBudget(select = 1, insert = 6)
     void startJPQL() {
         //member1을 찾아라
         String qlString =
@@ -79,6 +85,7 @@ public class QuerydslBasicTest {
     }
 
     @Test
+    @StatementBudget(select = 1, insert = 6)
     void startQuerydsl() {
 //        QMember m = new QMember("m"); //"m" : 별칭같은거 (크게 중요하지 않음) > 나중에 안쓴다.
 //        QMember m = QMember.member;
@@ -219,6 +226,7 @@ public class QuerydslBasicTest {
     }
 
     @Test
+    @StatementBudget(select = 2, insert = 6)
     void paging2() {
         QueryResults<Member> queryResults = queryFactory
                 .selectFrom(member)
@@ -368,6 +376,7 @@ public class QuerydslBasicTest {
      * 패치 조인
      */
     @Test
+    @StatementBudget(select = 1, insert = 6, entitiesLoaded = 1)
     void fetchJoinNo() {
         em.flush();
         em.clear();
@@ -381,6 +390,7 @@ public class QuerydslBasicTest {
         assertThat(loaded).as("페치 조인 미적용").isFalse();
     }
     @Test
+    @StatementBudget(select = 1, insert = 6, entitiesLoaded = 2)
     void fetchJoinUse() {
         em.flush();
         em.clear();
@@ -768,6 +778,34 @@ public class QuerydslBasicTest {
         }
     }
 
+    /**
+     * 벌크 연산 대상만 영속성 컨텍스트에서 빼기 (flush, clear 대신)
+     */
+    @Test
+    @StatementBudget(select = 3, insert = 7, update = 1, delete = 1, entitiesLoaded = 2)
+    void bulkUpdateEvict() {
+        List<Member> before = queryFactory
+                .selectFrom(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        long count = memberBulkOperations.update(member.age.lt(28), clause -> clause.set(member.username, "비회원"));
+        assertThat(count).isEqualTo(2);
+
+        //member1, member2만 준영속, 나머지는 그대로 영속성 컨텍스트에
+        assertThat(em.contains(before.get(0))).isFalse();
+        assertThat(em.contains(before.get(1))).isFalse();
+        assertThat(em.contains(before.get(2))).isTrue();
+
+        List<Member> result = queryFactory
+                .selectFrom(member)
+                .orderBy(member.age.asc())
+                .fetch();
+
+        assertThat(result).extracting("username").containsExactly("비회원", "비회원", "member3", "member4");
+        assertThat(result.get(2)).isSameAs(before.get(2)); //다시 로딩하지 않음
+    }
+
     @Test
     void bulkAdd() {
         long count = queryFactory
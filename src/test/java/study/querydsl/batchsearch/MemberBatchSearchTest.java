@@ -0,0 +1,84 @@
+package study.querydsl.batchsearch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.budget.QueryBudget;
+import study.querydsl.budget.QueryBudgetHolder;
+import study.querydsl.dto.MemberBatchSearchResult;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberBulkOperations;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 조건 쿼리가 다른 스레드에서 실행되므로 @Transactional(롤백) 없이 커밋 > 끝나고 직접 지운다
+ */
+@SpringBootTest
+class MemberBatchSearchTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    TransactionTemplate transactionTemplate;
+    @Autowired
+    MemberBatchSearch memberBatchSearch;
+    @Autowired
+    MemberBulkOperations memberBulkOperations;
+
+    @BeforeEach
+    void before() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("batchSearch" + i, 90 + i));
+            }
+        });
+    }
+
+    @AfterEach
+    void after() {
+        memberBulkOperations.delete(member.username.startsWith("batchSearch"));
+        QueryBudgetHolder.clear();
+    }
+
+    @Test
+    void groupedByCondition() {
+        List<MemberBatchSearchResult> results = memberBatchSearch.search(List.of(
+                condition("batchSearch1", null),
+                condition(null, 93),
+                condition("nobody", null),
+                condition("batchSearch1", null)));
+
+        assertThat(results).extracting("index").containsExactly(0, 1, 2, 3);
+        assertThat(results.get(0).getContent()).extracting("username").containsExactly("batchSearch1");
+        assertThat(results.get(1).getContent()).extracting("username").containsExactlyInAnyOrder("batchSearch3", "batchSearch4");
+        assertThat(results.get(2).getContent()).isEmpty();
+        assertThat(results.get(3).getContent()).isSameAs(results.get(0).getContent()); //같은 조건은 한번만 실행
+    }
+
+    @Test
+    void budgetPropagatesToWorkers() {
+        QueryBudget budget = new QueryBudget(5000, 100);
+        budget.cancel();
+        QueryBudgetHolder.set(budget);
+
+        assertThatThrownBy(() -> memberBatchSearch.search(List.of(condition("batchSearch1", null))))
+                .isInstanceOf(QueryTimeoutException.class);
+    }
+
+    private MemberSearchCondition condition(String username, Integer ageGoe) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setAgeGoe(ageGoe);
+        return condition;
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.benchmark;
+
+/**
+ * 측정용 테스트 공통 (gradle benchmark 로 실행)
+ */
+public abstract class BenchmarkSupport {
+
+    //메모리 측정 전에 GC를 몇 번 돌려서 최대한 살아있는 객체만 남긴다
+    public static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    public static String mb(long bytes) {
+        return String.format("%.1f MB", bytes / 1024.0 / 1024.0);
+    }
+
+    public static String ms(long nanos) {
+        return String.format("%.1f ms", nanos / 1_000_000.0);
+    }
+}
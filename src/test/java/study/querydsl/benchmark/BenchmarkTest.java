@@ -0,0 +1,25 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 측정용 테스트 설정 (gradle benchmark 에서만 실행)
+ * 메모리 H2, JDBC batch, SQL 로그 끔 > 측정값에 TCP 왕복과 로그 출력이 섞이지 않게
+ * 설정이 같으니 측정 테스트끼리 스프링 컨텍스트도 하나를 같이 쓴다
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=1000",
+        "logging.level.org.hibernate.SQL=info",
+        "decorator.datasource.p6spy.enable-logging=false"})
+public @interface BenchmarkTest {
+}
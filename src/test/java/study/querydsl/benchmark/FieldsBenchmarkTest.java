@@ -0,0 +1,76 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberField;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.EnumSet;
+import java.util.function.Supplier;
+
+import static study.querydsl.benchmark.BenchmarkSupport.ms;
+
+/**
+ * search(5개 컬럼 + team 조인) vs searchFields(username, age만, 조인 없음)
+ * 결과 크기는 JSON으로 직렬화한 바이트 수로 비교
+ */
+@BenchmarkTest
+@Transactional
+class FieldsBenchmarkTest {
+
+    private static final int WARM_UP = 20;
+    private static final int ITERATIONS = 100;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Test
+    void fields() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 10_000; i++) {
+            em.persist(new Member("member" + i, i % 100, i % 2 == 0 ? teamA : teamB));
+            if (i % 1000 == 0) {
+                em.flush();
+                em.clear();
+                teamA = em.getReference(Team.class, teamA.getId());
+                teamB = em.getReference(Team.class, teamB.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(50);
+        EnumSet<MemberField> fields = EnumSet.of(MemberField.USERNAME, MemberField.AGE);
+
+        int fullBytes = objectMapper.writeValueAsBytes(memberJpaRepository.search(condition)).length;
+        int fieldBytes = objectMapper.writeValueAsBytes(memberJpaRepository.searchFields(condition, fields)).length;
+        System.out.printf("[fields] all: %s/op %d bytes, username+age: %s/op %d bytes%n",
+                ms(measure(() -> memberJpaRepository.search(condition))), fullBytes,
+                ms(measure(() -> memberJpaRepository.searchFields(condition, fields))), fieldBytes);
+    }
+
+    private long measure(Supplier<?> search) {
+        for (int i = 0; i < WARM_UP; i++) {
+            search.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.get();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+}
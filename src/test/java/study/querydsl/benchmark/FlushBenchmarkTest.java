@@ -0,0 +1,56 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static study.querydsl.benchmark.BenchmarkSupport.*;
+
+/**
+ * 영속성 컨텍스트에 Member가 많을 때 flush 시간과 메모리
+ * gradle benchmark --tests '*FlushBenchmarkTest' (enhancement 적용)
+ * gradle benchmark --tests '*FlushBenchmarkTest' -PhibernateEnhance=false (스냅샷 비교)
+ */
+@BenchmarkTest
+@Transactional
+class FlushBenchmarkTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    void flush() {
+        int loaded = 0;
+        for (int size : new int[]{10_000, 50_000, 100_000}) {
+            for (int i = loaded; i < size; i++) {
+                em.persist(new Member("member" + i, i % 100));
+                if (i % 1000 == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            loaded = size;
+            em.flush();
+            em.clear();
+
+            long before = usedHeap();
+            List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+            long heap = usedHeap() - before;
+
+            //1%만 변경 > dirty tracking이면 변경된 엔티티만, 스냅샷이면 전부 비교
+            for (int i = 0; i < members.size(); i += 100) {
+                members.get(i).setAge(members.get(i).getAge() + 1);
+            }
+            long start = System.nanoTime();
+            em.flush();
+            long flush = System.nanoTime() - start;
+
+            System.out.printf("[flush] entities=%d heap=%s flush=%s%n", members.size(), mb(heap), ms(flush));
+            em.clear();
+        }
+    }
+}
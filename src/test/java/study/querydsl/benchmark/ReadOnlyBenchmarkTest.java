@@ -0,0 +1,59 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static study.querydsl.benchmark.BenchmarkSupport.*;
+
+/**
+ * 같은 10만건을 일반 조회와 read-only 조회로 읽었을 때 힙 사용량과 flush 시간
+ */
+@BenchmarkTest
+@Transactional
+class ReadOnlyBenchmarkTest {
+
+    private static final int SIZE = 100_000;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Test
+    void readOnly() {
+        for (int i = 0; i < SIZE; i++) {
+            em.persist(new Member("member" + i, i % 100));
+            if (i % 1000 == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+
+        long before = usedHeap();
+        List<Member> managed = em.createQuery("select m from Member m", Member.class).getResultList();
+        long managedHeap = usedHeap() - before;
+        long start = System.nanoTime();
+        em.flush();
+        long managedFlush = System.nanoTime() - start;
+        System.out.printf("[read-write] entities=%d heap=%s flush=%s%n", managed.size(), mb(managedHeap), ms(managedFlush));
+
+        managed = null;
+        em.clear();
+
+        before = usedHeap();
+        List<Member> readOnly = memberJpaRepository.findAllReadOnly();
+        long readOnlyHeap = usedHeap() - before;
+        start = System.nanoTime();
+        em.flush();
+        long readOnlyFlush = System.nanoTime() - start;
+        System.out.printf("[read-only]  entities=%d heap=%s flush=%s%n", readOnly.size(), mb(readOnlyHeap), ms(readOnlyFlush));
+    }
+}
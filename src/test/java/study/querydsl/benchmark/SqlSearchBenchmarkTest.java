@@ -0,0 +1,68 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.MemberSqlQueryRepository;
+
+import javax.persistence.EntityManager;
+import java.util.function.Supplier;
+
+import static study.querydsl.benchmark.BenchmarkSupport.ms;
+
+/**
+ * search: JPA(HQL) 경로 vs querydsl-sql(JDBC) 경로
+ */
+@BenchmarkTest
+@Transactional
+class SqlSearchBenchmarkTest {
+
+    private static final int WARM_UP = 50;
+    private static final int ITERATIONS = 200;
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberSqlQueryRepository memberSqlQueryRepository;
+
+    @Test
+    void search() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 10_000; i++) {
+            em.persist(new Member("member" + i, i % 100, i % 2 == 0 ? teamA : teamB));
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(60);
+
+        System.out.printf("[search] jpa=%s/op sql=%s/op%n",
+                ms(measure(() -> memberRepository.search(condition))),
+                ms(measure(() -> memberSqlQueryRepository.search(condition))));
+    }
+
+    private long measure(Supplier<?> search) {
+        for (int i = 0; i < WARM_UP; i++) {
+            search.get();
+            em.clear();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.get();
+            em.clear();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+}
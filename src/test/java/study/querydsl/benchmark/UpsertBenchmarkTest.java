@@ -0,0 +1,43 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberUpsert;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static study.querydsl.benchmark.BenchmarkSupport.ms;
+
+/**
+ * upsertByUsername 처리량 (목표: 로컬 초당 10만 건)
+ * 1회차는 전부 insert, 2회차는 전부 update
+ */
+@BenchmarkTest
+@Transactional
+class UpsertBenchmarkTest {
+
+    private static final int ROWS = 100_000;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    void upsert() {
+        for (String round : new String[]{"insert", "update"}) {
+            List<MemberUpsert> rows = new ArrayList<>(ROWS);
+            for (int i = 0; i < ROWS; i++) {
+                rows.add(new MemberUpsert("member" + i, round.equals("insert") ? i % 100 : i % 100 + 1, null));
+            }
+
+            long start = System.nanoTime();
+            long count = memberRepository.upsertByUsername(rows);
+            long elapsed = System.nanoTime() - start;
+
+            System.out.printf("[upsert] %s rows=%d time=%s rate=%.0f rows/s%n",
+                    round, count, ms(elapsed), count / (elapsed / 1_000_000_000.0));
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package study.querydsl.budget;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.concurrent.Callable;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class QueryBudgetTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    QueryBudgetInterceptor interceptor;
+    @Autowired
+    QueryBudgets queryBudgets;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MeterRegistry meterRegistry;
+    @Autowired
+    RequestMappingHandlerAdapter handlerAdapter;
+    @Autowired
+    ThreadPoolTaskExecutor searchTaskExecutor;
+
+    @AfterEach
+    void after() {
+        QueryBudgetHolder.clear();
+    }
+
+    //X-Request-Timeout(ms) > 예산 > JDBC statement timeout(초, 올림)
+    @Test
+    void timeoutHeaderToStatementTimeout() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("X-Request-Timeout", "2500");
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+
+        QueryBudget budget = QueryBudgetHolder.get();
+        assertThat(budget.remainingMillis()).isBetween(2000L, 2500L);
+
+        Query query = queryBudgets.apply(new JPAQueryFactory(em).selectFrom(member)).createQuery();
+        assertThat(query.getHints()).containsEntry("org.hibernate.timeout", 3);
+    }
+
+    @Test
+    void timeoutHeaderClampedAndDefault() {
+        MockHttpServletRequest tooLong = new MockHttpServletRequest();
+        tooLong.addHeader("X-Request-Timeout", "999999");
+        interceptor.preHandle(tooLong, new MockHttpServletResponse(), new Object());
+        assertThat(QueryBudgetHolder.get().remainingMillis()).isBetween(29_000L, 30_000L); //max-timeout
+
+        MockHttpServletRequest invalid = new MockHttpServletRequest();
+        invalid.addHeader("X-Request-Timeout", "abc");
+        interceptor.preHandle(invalid, new MockHttpServletResponse(), new Object());
+        assertThat(QueryBudgetHolder.get().remainingMillis()).isBetween(4_000L, 5_000L); //default-timeout
+    }
+
+    @Test
+    void rowCap() {
+        for (int i = 0; i < 3; i++) {
+            em.persist(new Member("budget" + i, i));
+        }
+        em.flush();
+        double before = violations("row-cap");
+
+        QueryBudgetHolder.set(new QueryBudget(5000, 2));
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(2);
+
+        assertThat(memberJpaRepository.search(condition)).hasSize(2);
+        assertThat(violations("row-cap")).isEqualTo(before + 1);
+        assertThat(QueryBudgetHolder.get().isTruncated()).isTrue();
+
+        //딱 맞게 들어오면 잘린 것이 아니다
+        QueryBudgetHolder.set(new QueryBudget(5000, 3));
+        assertThat(memberJpaRepository.search(condition)).hasSize(3);
+        assertThat(QueryBudgetHolder.get().isTruncated()).isFalse();
+        assertThat(violations("row-cap")).isEqualTo(before + 1);
+    }
+
+    //Callable이 끝나고 응답을 쓰기 전에 헤더
+    @Test
+    void truncatedHeader() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        interceptor.preHandle(request, response, new Object());
+        QueryBudgetHolder.get().markTruncated();
+
+        interceptor.postProcess(new ServletWebRequest(request, response), () -> null, null);
+
+        assertThat(response.getHeader("X-Result-Truncated")).isEqualTo("true");
+    }
+
+    @Test
+    void cancelQueries() {
+        Session running = mock(Session.class);
+        QueryBudget budget = new QueryBudget(5000, 100);
+        budget.register(running);
+
+        budget.cancel();
+        verify(running).cancelQuery();
+
+        Session late = mock(Session.class); //취소된 다음에 시작한 쿼리도 바로 취소
+        budget.register(late);
+        verify(late).cancelQuery();
+
+        QueryBudgetHolder.set(budget);
+        assertThatThrownBy(() -> queryBudgets.apply(new JPAQueryFactory(em).selectFrom(member)))
+                .isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void asyncTimeoutCancels() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+        QueryBudget budget = QueryBudgetHolder.get();
+        Session running = mock(Session.class);
+        budget.register(running);
+
+        Callable<Object> task = () -> null;
+        interceptor.handleTimeout(new ServletWebRequest(request), task);
+
+        assertThat(budget.isCancelled()).isTrue();
+        verify(running).cancelQuery();
+    }
+
+    //클라이언트가 끊어서 Callable보다 비동기 요청이 먼저 끝남 > 취소
+    @Test
+    void completionBeforeCallableCancels() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+        QueryBudget budget = QueryBudgetHolder.get();
+        Session running = mock(Session.class);
+        budget.register(running);
+
+        interceptor.afterCompletion(new ServletWebRequest(request), () -> null);
+
+        assertThat(budget.isCancelled()).isTrue();
+        verify(running).cancelQuery();
+    }
+
+    @Test
+    void completionAfterCallableDoesNotCancel() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, new MockHttpServletResponse(), new Object());
+        QueryBudget budget = QueryBudgetHolder.get();
+        ServletWebRequest webRequest = new ServletWebRequest(request, new MockHttpServletResponse());
+
+        interceptor.postProcess(webRequest, () -> null, null);
+        interceptor.afterCompletion(webRequest, () -> null);
+
+        assertThat(budget.isCancelled()).isFalse();
+    }
+
+    //Callable은 크기가 정해진 전용 풀에서 (boot 기본 applicationTaskExecutor 대신)
+    @Test
+    void boundedSearchExecutor() {
+        assertThat(ReflectionTestUtils.getField(handlerAdapter, "taskExecutor")).isSameAs(searchTaskExecutor);
+        assertThat(searchTaskExecutor.getCorePoolSize()).isEqualTo(8);
+        assertThat(searchTaskExecutor.getMaxPoolSize()).isEqualTo(8);
+        assertThat(searchTaskExecutor.getThreadPoolExecutor().getQueue().remainingCapacity()).isEqualTo(32);
+    }
+
+    //예산이 없으면 쿼리를 보내지 않고 503, 지표 증가
+    @Test
+    void exhaustedBudgetIs503() throws Exception {
+        double before = violations("timeout");
+
+        MvcResult result = mockMvc.perform(get("/v2/members").header("X-Request-Timeout", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(content().string("query budget exceeded"));
+
+        assertThat(violations("timeout")).isEqualTo(before + 1);
+    }
+
+    private double violations(String type) {
+        return meterRegistry.counter("query.budget.violations", "type", type).count();
+    }
+}
@@ -0,0 +1,45 @@
+package study.querydsl.bulkhead;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBulkheadTest {
+
+    @Test
+    void rejectWhenFull() throws InterruptedException {
+        BulkheadProperties.Limit config = new BulkheadProperties.Limit();
+        config.setInitialLimit(1);
+        config.setMaxWait(Duration.ofMillis(10));
+        AdaptiveBulkhead bulkhead = new AdaptiveBulkhead(config);
+
+        assertThat(bulkhead.tryAcquire()).isTrue();
+        assertThat(bulkhead.tryAcquire()).isFalse(); //자리가 없으면 maxWait 후 거절
+
+        bulkhead.release(0);
+        assertThat(bulkhead.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void aimd() throws InterruptedException {
+        BulkheadProperties.Limit config = new BulkheadProperties.Limit();
+        config.setMaxConcurrent(4);
+        config.setInitialLimit(2);
+        config.setLatencyThreshold(Duration.ofMillis(100));
+        config.setBackoffRatio(0.5);
+        AdaptiveBulkhead bulkhead = new AdaptiveBulkhead(config);
+
+        //빠른 응답 > +1
+        bulkhead.tryAcquire();
+        bulkhead.release(Duration.ofMillis(1).toNanos());
+        assertThat(bulkhead.getLimit()).isEqualTo(3);
+
+        //느린 응답 > 절반
+        bulkhead.tryAcquire();
+        bulkhead.release(Duration.ofMillis(300).toNanos());
+        assertThat(bulkhead.getLimit()).isEqualTo(1);
+        assertThat(bulkhead.getInFlight()).isZero();
+    }
+}
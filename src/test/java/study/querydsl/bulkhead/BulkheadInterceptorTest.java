@@ -0,0 +1,59 @@
+package study.querydsl.bulkhead;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * export는 1개만 > Callable 요청 하나가 permit을 들고 있는 동안(재디스패치 전) 다음 요청은 거절
+ */
+@SpringBootTest(properties = {"bulkhead.limits.export.max-concurrent=1", "bulkhead.limits.export.initial-limit=1",
+        "bulkhead.limits.export.max-wait=10ms", "bulkhead.retry-after=2s"})
+@AutoConfigureMockMvc
+class BulkheadInterceptorTest {
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    BulkheadRegistry registry;
+
+    @Test
+    void rejectWhenSaturated() throws Exception {
+        double rejected = registry.rejected(BulkheadType.EXPORT).count();
+
+        MvcResult running = mockMvc.perform(get("/v1/members"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(registry.get(BulkheadType.EXPORT).getInFlight()).isEqualTo(1);
+
+        mockMvc.perform(get("/v1/members"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "2"));
+        assertThat(registry.rejected(BulkheadType.EXPORT).count()).isEqualTo(rejected + 1);
+
+        //bulkhead 밖의 가벼운 조회는 그대로
+        mockMvc.perform(get("/v1/members/by-username/none"))
+                .andExpect(status().isOk());
+
+        //끝나면 반납 > 다시 받는다
+        mockMvc.perform(asyncDispatch(running))
+                .andExpect(status().isOk());
+        assertThat(registry.get(BulkheadType.EXPORT).getInFlight()).isZero();
+
+        MvcResult next = mockMvc.perform(get("/v1/members"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(next))
+                .andExpect(status().isOk());
+    }
+}
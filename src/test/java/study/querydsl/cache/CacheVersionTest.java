@@ -0,0 +1,84 @@
+package study.querydsl.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.hibernate.event.spi.EventSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.PayloadApplicationEvent;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 한 JVM에 컨텍스트 두 개(노드 A, B)를 띄우고 같은 H2 메모리 DB를 공유
+ * A에서 쓰면 B가 cache_version 변경을 보고 이벤트를 받아야 한다
+ */
+class CacheVersionTest {
+
+    private static final String URL = "--spring.datasource.url=jdbc:h2:mem:cluster;DB_CLOSE_DELAY=-1";
+
+    ConfigurableApplicationContext nodeA;
+    ConfigurableApplicationContext nodeB;
+    List<CacheVersionChangedEvent> receivedByB = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void before() {
+        nodeA = node("--spring.jpa.hibernate.ddl-auto=create");
+        nodeB = node("--spring.jpa.hibernate.ddl-auto=none"); //A가 만든 테이블을 그대로 (다시 만들면 A 데이터가 날아간다)
+        nodeB.addApplicationListener((ApplicationListener<PayloadApplicationEvent<?>>) event -> {
+            if (event.getPayload() instanceof CacheVersionChangedEvent) { //ApplicationEvent가 아닌 이벤트는 PayloadApplicationEvent로 감싸서 온다
+                receivedByB.add((CacheVersionChangedEvent) event.getPayload());
+            }
+        });
+    }
+
+    @AfterEach
+    void after() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void invalidateOtherNode() throws InterruptedException {
+        nodeA.getBean(MemberJpaRepository.class).save(new Member("member1", 10));
+        nodeA.getBean(MemberJpaRepository.class).save(new Member("member2", 20));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (receivedByB.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(receivedByB).extracting("entityType").contains(CacheVersions.MEMBER);
+        assertThat(receivedByB).extracting("entityType").doesNotContain(CacheVersions.TEAM);
+    }
+
+    //트랜잭션이 끝나지 않고 세션만 닫혀도 대기 목록에 남지 않는다
+    @Test
+    void pendingClearedOnSessionClose() {
+        EntityManager em = nodeA.getBean(EntityManagerFactory.class).createEntityManager();
+        EventSource session = em.unwrap(EventSource.class);
+        CacheVersions.mark(session, CacheVersions.MEMBER);
+        assertThat(CacheVersions.isPending(session)).isTrue();
+
+        em.close();
+
+        assertThat(CacheVersions.isPending(session)).isFalse();
+    }
+
+    private ConfigurableApplicationContext node(String ddlAuto) {
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(URL, ddlAuto, "--cache-version.poll-interval=50ms", "--spring.jmx.enabled=false");
+    }
+}
@@ -1,5 +1,6 @@
 package study.querydsl.entity;
 
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -10,6 +11,7 @@ import javax.persistence.EntityManager;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
@@ -48,4 +50,49 @@ class MemberTest {
             System.out.println("member.getTeam() = " + member.getTeam());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void changeTeam() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        em.persist(member1);
+        em.persist(member2);
+
+        assertThat(teamA.getMembers()).containsExactly(member1, member2);
+
+        em.flush();
+        em.clear();
+
+        Team findTeam = em.find(Team.class, teamA.getId());
+        assertThat(findTeam.getMembers()).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+    }
+
+    @Test
+    void changeTeamWithoutLoadingMembers() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+        em.flush();
+        em.clear();
+
+        Team findTeam = em.find(Team.class, teamA.getId());
+        Member newMember = new Member("newMember", 10, findTeam);
+        em.persist(newMember);
+
+        //추가해도 members는 로딩되지 않는다
+        assertThat(Hibernate.isInitialized(findTeam.getMembers())).isFalse();
+
+        //처음 읽을 때 DB 결과 + 대기 중인 추가가 합쳐진다
+        assertThat(findTeam.getMembers()).hasSize(101).contains(newMember);
+
+        em.flush();
+        em.clear();
+
+        assertThat(em.find(Team.class, teamA.getId()).getMembers()).hasSize(101);
+    }
+}
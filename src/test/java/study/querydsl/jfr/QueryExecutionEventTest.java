@@ -0,0 +1,80 @@
+package study.querydsl.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class QueryExecutionEventTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Test
+    void repositoryCallEmitsEvent() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("jfr1", 10, teamA));
+        em.persist(new Member("jfr2", 20, teamA));
+        em.persist(new Member("jfr3", 30, teamB));
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        List<MemberTeamDto> result;
+        Path dump = Files.createTempFile("querydsl", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(QueryExecutionEvent.NAME).withThreshold(Duration.ZERO); //기본 10ms threshold는 테스트에선 못 넘는다
+            recording.start();
+            result = memberRepository.search(condition);
+            recording.stop();
+            recording.dump(dump);
+        }
+
+        List<RecordedEvent> events;
+        try {
+            events = RecordingFile.readAllEvents(dump).stream()
+                    .filter(event -> event.getEventType().getName().equals(QueryExecutionEvent.NAME))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(dump);
+        }
+
+        assertThat(result).extracting("username").containsExactlyInAnyOrder("jfr1", "jfr2");
+        assertThat(events).hasSize(1);
+        RecordedEvent event = events.get(0);
+        assertThat(event.getString("repositoryMethod")).startsWith("MemberRepository").endsWith(".search");
+        assertThat(event.getString("conditionShape")).isEqualTo("teamName");
+        assertThat(event.getString("operation")).isEqualTo("fetch");
+        assertThat(event.getLong("rowCount")).isEqualTo(2);
+        assertThat(event.getDuration("sqlTime")).isPositive();
+        assertThat(event.getInt("statementCount")).isEqualTo(1);
+        assertThat(event.getBoolean("failed")).isFalse();
+    }
+}
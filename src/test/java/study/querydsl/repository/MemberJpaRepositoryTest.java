@@ -1,18 +1,26 @@
 package study.querydsl.repository;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberField;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.support.StatementBudget;
+import study.querydsl.support.StatementCounter;
 
 import javax.persistence.EntityManager;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,6 +35,7 @@ class MemberJpaRepositoryTest {
     MemberJpaRepository memberJpaRepository;
 
     @Test
+    @StatementBudget(select = 2, insert = 1)
     void basicTest() {
         Member member = new Member("member1", 10);
         memberJpaRepository.save(member);
@@ -44,6 +53,7 @@ class MemberJpaRepositoryTest {
     }
 
     @Test
+    @StatementBudget(select = 1, insert = 6, entitiesLoaded = 0)
     void searchTest() {
         Team teamA = new Team("teamA");
         Team teamB = new Team("teamB");
@@ -71,6 +81,7 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member3", "member4");
     }
     @Test
+    @StatementBudget(select = 1, insert = 6, entitiesLoaded = 0)
     void searchTest2() {
         Team teamA = new Team("teamA");
         Team teamB = new Team("teamB");
@@ -98,4 +109,98 @@ class MemberJpaRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member3", "member4");
     }
 
-}
\ No newline at end of file
+
+    @Test
+    @StatementBudget(select = 1, insert = 1, entitiesLoaded = 1)
+    void readOnlyTest() {
+        memberJpaRepository.save(new Member("member1", 10));
+        em.flush();
+        em.clear();
+
+        //쓰기 트랜잭션 안에서 호출해도 read-only 힌트로 스냅샷 없이 로딩된다
+        List<Member> result = memberJpaRepository.findAllReadOnly();
+        Session session = em.unwrap(Session.class);
+        assertThat(result).allMatch(session::isReadOnly);
+    }
+
+    //일반 finder로 읽은 엔티티는 수정이 반영되어야 한다
+    @Test
+    @StatementBudget(select = 3, insert = 1, update = 2, entitiesLoaded = 3)
+    void findersAreWritable() {
+        memberJpaRepository.save(new Member("member1", 10));
+        em.flush();
+        em.clear();
+
+        memberJpaRepository.findByUsername("member1").get(0).setAge(20);
+        em.flush();
+        em.clear();
+        memberJpaRepository.findAll_Querydsl().get(0).setAge(30);
+        em.flush();
+        em.clear();
+
+        assertThat(memberJpaRepository.findById(memberJpaRepository.findAll().get(0).getId()))
+                .get().extracting("age").isEqualTo(30);
+    }
+
+    @Test
+    @StatementBudget(select = 2, insert = 600, entitiesLoaded = 600)
+    void findAllByIds() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 600; i++) { //IN 절 한 번(512개)을 넘도록
+            Member member = new Member("member" + i, i);
+            memberJpaRepository.save(member);
+            ids.add(member.getId());
+        }
+        em.flush();
+        em.clear();
+
+        Collections.reverse(ids);
+        ids.add(-1L); //없는 id
+
+        Map<Long, Member> result = memberJpaRepository.findAllByIds(ids);
+
+        assertThat(result).hasSize(600);
+        assertThat(result.keySet()).containsExactlyElementsOf(ids.subList(0, 600)); //입력 순서대로
+        assertThat(result.get(ids.get(0)).getUsername()).isEqualTo("member599");
+    }
+
+    @Test
+    @StatementBudget(select = 1, insert = 3)
+    void findAllByUsernames() {
+        memberJpaRepository.save(new Member("member1", 10));
+        memberJpaRepository.save(new Member("member2", 20));
+        memberJpaRepository.save(new Member("member2", 21));
+
+        Map<String, List<Member>> result = memberJpaRepository.findAllByUsernames(List.of("member2", "none", "member1"));
+
+        assertThat(result.keySet()).containsExactly("member2", "none", "member1");
+        assertThat(result.get("member2")).extracting("age").containsExactlyInAnyOrder(20, 21);
+        assertThat(result.get("none")).isEmpty();
+        assertThat(result.get("member1")).extracting("age").containsExactly(10);
+    }
+
+    @Test
+    @StatementBudget(select = 2, insert = 3, entitiesLoaded = 0)
+    void searchFields() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(15);
+
+        //team 조인 없이 요청한 필드만
+        List<Map<String, Object>> result = memberJpaRepository.searchFields(condition, EnumSet.of(MemberField.USERNAME, MemberField.TEAM_ID));
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0)).containsOnlyKeys("username", "teamId");
+        assertThat(result.get(0)).containsEntry("username", "member2").containsEntry("teamId", teamA.getId());
+        assertThat(StatementCounter.current().last()).doesNotContainIgnoringCase("join").doesNotContainIgnoringCase(" team ");
+
+        //teamName 조건이 있으면 조인
+        condition.setTeamName("teamA");
+        List<Map<String, Object>> withTeam = memberJpaRepository.searchFields(condition, EnumSet.of(MemberField.AGE));
+        assertThat(withTeam).extracting(row -> row.get("age")).containsExactly(20);
+        assertThat(StatementCounter.current().last()).containsIgnoringCase("join team");
+    }
+}
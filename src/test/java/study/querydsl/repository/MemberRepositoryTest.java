@@ -1,23 +1,36 @@
 package study.querydsl.repository;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.EstimatedPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.MemberUpsert;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.support.StatementBudget;
+import study.querydsl.support.StatementBudgetExtension;
+import study.querydsl.support.StatementBudgets;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 @SpringBootTest
 @Transactional
+@ExtendWith(StatementBudgetExtension.class) //StatementBudgets 파라미터
 class MemberRepositoryTest {
 
     @Autowired
@@ -26,6 +39,7 @@ class MemberRepositoryTest {
     MemberRepository memberRepository;
 
     @Test
+    @StatementBudget(select = 2, insert = 1)
     void basicTest() {
         Member member = new Member("member1", 10);
         memberRepository.save(member);
@@ -43,7 +57,82 @@ class MemberRepositoryTest {
     }
 
 
+    //MemberLookupRepository 프래그먼트 경로
     @Test
+    @StatementBudget(select = 2, insert = 600, entitiesLoaded = 600)
+    void findAllByIds() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 600; i++) { //IN 절 한 번(512개)을 넘도록
+            ids.add(memberRepository.save(new Member("member" + i, i)).getId());
+        }
+        em.flush();
+        em.clear();
+
+        Collections.reverse(ids);
+        ids.add(-1L); //없는 id
+
+        Map<Long, Member> result = memberRepository.findAllByIds(ids);
+
+        assertThat(result.keySet()).containsExactlyElementsOf(ids.subList(0, 600)); //입력 순서대로
+        assertThat(result.get(ids.get(0)).getUsername()).isEqualTo("member599");
+    }
+
+    @Test
+    @StatementBudget(select = 1, insert = 2)
+    void findAllByUsernames() {
+        memberRepository.save(new Member("member1", 10));
+        memberRepository.save(new Member("member2", 20));
+
+        Map<String, List<Member>> result = memberRepository.findAllByUsernames(List.of("member2", "none", "member1"));
+
+        assertThat(result.keySet()).containsExactly("member2", "none", "member1");
+        assertThat(result.get("member2")).extracting("age").containsExactly(20);
+        assertThat(result.get("none")).isEmpty();
+        assertThat(result.get("member1")).extracting("age").containsExactly(10);
+    }
+
+    //member-snapshot이 꺼져 있으면 (test application.yml) querydsl로, 엔티티 로딩 없이
+    @Test
+    @StatementBudget(select = 3, insert = 3, entitiesLoaded = 0)
+    void findDtos() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.persist(new Member("member2", 20));
+
+        assertThat(memberRepository.findDtoById(member1.getId())).get().extracting("teamName").isEqualTo("teamA");
+        assertThat(memberRepository.findDtoById(-1L)).isEmpty();
+        assertThat(memberRepository.findDtosByUsername("member2")).extracting("age", "teamId").containsExactly(tuple(20, null));
+    }
+
+    //준비 단계는 빼고 조회 구간만
+    @Test
+    void findDtosScoped(StatementBudgets budget) {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        em.persist(member1);
+        em.flush();
+
+        try (var b = budget.expect(1).entitiesLoaded(0)) {
+            assertThat(memberRepository.findDtoById(member1.getId())).isPresent();
+        }
+        try (var b = budget.expect().select(1).insert(0)) {
+            assertThat(memberRepository.findDtosByUsername("member1")).hasSize(1);
+        }
+
+        //구간 상한을 넘으면 닫을 때 실패
+        assertThatThrownBy(() -> {
+            try (var b = budget.expect(1)) {
+                memberRepository.findDtoById(member1.getId());
+                memberRepository.findDtosByUsername("member1");
+            }
+        }).isInstanceOf(AssertionError.class).hasMessageContaining("statements 2 > 1");
+    }
+
+    @Test
+    @StatementBudget(select = 1, insert = 6, entitiesLoaded = 0)
     void searchTest() {
         Team teamA = new Team("teamA");
         Team teamB = new Team("teamB");
@@ -72,6 +161,7 @@ class MemberRepositoryTest {
     }
 
     @Test
+    @StatementBudget(select = 2, insert = 6, entitiesLoaded = 0)
     void searchPageSimple() {
         Team teamA = new Team("teamA");
         Team teamB = new Team("teamB");
@@ -97,5 +187,84 @@ class MemberRepositoryTest {
         assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    @StatementBudget(select = 2, insert = 5, entitiesLoaded = 0)
+    void searchSlice() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+
+        Slice<MemberTeamDto> first = memberRepository.searchSlice(new MemberSearchCondition(), PageRequest.of(0, 3));
+        Slice<MemberTeamDto> last = memberRepository.searchSlice(new MemberSearchCondition(), PageRequest.of(1, 3));
+
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(last.getContent()).extracting("username").containsExactly("member4");
+        assertThat(last.hasNext()).isFalse();
+    }
+
+    @Test
+    @StatementBudget(select = 4, insert = 5)
+    void searchPageApproximate() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 1; i <= 4; i++) {
+            em.persist(new Member("member" + i, i * 10, teamA));
+        }
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        //처음 보는 조건은 바로 센다 > 정확한 값
+        EstimatedPage<MemberTeamDto> first = memberRepository.searchPageApproximate(condition, PageRequest.of(0, 2));
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(first.isTotalExact()).isTrue();
+
+        //그 다음부터는 캐시된 값 > 추정치
+        EstimatedPage<MemberTeamDto> second = memberRepository.searchPageApproximate(condition, PageRequest.of(0, 2));
+        assertThat(second.getTotalElements()).isEqualTo(4);
+        assertThat(second.isTotalExact()).isFalse();
+
+        //마지막 페이지는 content로 정확히 알 수 있다
+        EstimatedPage<MemberTeamDto> last = memberRepository.searchPageApproximate(condition, PageRequest.of(1, 3));
+        assertThat(last.getTotalElements()).isEqualTo(4);
+        assertThat(last.isTotalExact()).isTrue();
+    }
+
+    @Test
+    @StatementBudget(select = 3, insert = 3, delete = 1)
+    void upsertByUsername() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10);
+        em.persist(member1);
+
+        long count = memberRepository.upsertByUsername(List.of(
+                new MemberUpsert("member1", 11, teamA.getId()), //update
+                new MemberUpsert("member2", 20, null), //insert
+                new MemberUpsert("member2", 21, null))); //같은 username > 마지막 값
 
-}
\ No newline at end of file
+        assertThat(count).isEqualTo(2);
+        assertThat(em.contains(member1)).isFalse(); //예전 값을 들고 있던 엔티티는 준영속
+
+        Member updated = memberRepository.findByUsername("member1").get(0);
+        assertThat(updated.getId()).isEqualTo(member1.getId()); //id는 그대로
+        assertThat(updated.getAge()).isEqualTo(11);
+        assertThat(updated.getTeam().getName()).isEqualTo("teamA");
+        assertThat(memberRepository.findByUsername("member2")).extracting("age").containsExactly(21);
+    }
+
+    //username은 유일하지 않다 > 같은 username 회원은 전부 갱신, 새로 넣지 않는다
+    @Test
+    void upsertByDuplicateUsername() {
+        em.persist(new Member("dup", 10));
+        em.persist(new Member("dup", 20));
+
+        long count = memberRepository.upsertByUsername(List.of(new MemberUpsert("dup", 30, null)));
+
+        assertThat(count).isEqualTo(2);
+        assertThat(memberRepository.findByUsername("dup")).extracting("age").containsExactly(30, 30);
+        assertThat(memberRepository.findDtosByUsername("dup")).extracting("age").containsExactly(30, 30);
+    }
+}
@@ -0,0 +1,148 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.*;
+
+@SpringBootTest
+@Transactional
+class MemberSearchTableRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MemberSearchTableRepository memberSearchTableRepository;
+    @Autowired
+    MemberBulkOperations memberBulkOperations;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    Team teamA;
+
+    @BeforeEach
+    void before() {
+        teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    void sameResultAsJoin() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setTeamName("teamB");
+
+        List<MemberTeamDto> result = memberSearchTableRepository.search(condition);
+
+        assertThat(result).extracting("username").containsExactly("member3", "member4");
+        assertThat(result).usingRecursiveFieldByFieldElementComparator()
+                .containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(condition));
+    }
+
+    //동기화 리스너 없이 들어간 데이터 (projection-table을 켜기 전) > 기동시 backfill
+    @Test
+    void backfill() {
+        em.createNativeQuery("delete from member_search").executeUpdate();
+        assertThat(memberSearchTableRepository.search(new MemberSearchCondition())).isEmpty();
+
+        new MemberSearchBackfill(em, transactionManager).run(new DefaultApplicationArguments());
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        assertThat(memberSearchTableRepository.search(new MemberSearchCondition())).hasSize(5);
+        assertThat(memberSearchTableRepository.search(condition)).extracting("username").containsExactly("member1", "member2");
+    }
+
+    @Test
+    void memberChange() {
+        Member member1 = em.createQuery("select m from Member m where m.username = 'member1'", Member.class).getSingleResult();
+        member1.setAge(11);
+        em.remove(em.createQuery("select m from Member m where m.username = 'member5'", Member.class).getSingleResult());
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(11);
+        assertThat(memberSearchTableRepository.search(condition)).extracting("age").containsExactly(11);
+        assertThat(memberSearchTableRepository.search(new MemberSearchCondition())).hasSize(4);
+    }
+
+    //flush마다 모아서 배치로 쓴다 (insert, delete, 초기화 안 된 프록시 팀의 이름)
+    @Test
+    void insertAndDeleteInOneFlush() {
+        Member member6 = new Member("member6", 60, em.getReference(Team.class, teamA.getId()));
+        em.persist(member6);
+        em.persist(new Member("member7", 70, em.getReference(Team.class, teamA.getId())));
+        em.flush();
+        em.remove(member6);
+        em.persist(new Member("member8", 80));
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(60);
+        assertThat(memberSearchTableRepository.search(condition)).extracting("username", "teamName")
+                .containsExactly(tuple("member7", "teamA"), tuple("member8", null));
+    }
+
+    @Test
+    void teamRename() {
+        Team findTeam = em.find(Team.class, teamA.getId());
+        findTeam.setName("teamC");
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamC");
+        assertThat(memberSearchTableRepository.search(condition)).extracting("username").containsExactly("member1", "member2");
+    }
+
+    @Test
+    void bulkOperations() {
+        long updated = memberBulkOperations.update(member.age.lt(28), clause -> clause.set(member.age, member.age.add(1)));
+        long deleted = memberBulkOperations.delete(member.age.goe(50));
+
+        assertThat(updated).isEqualTo(2);
+        assertThat(deleted).isEqualTo(1);
+        assertThat(memberSearchTableRepository.search(new MemberSearchCondition()))
+                .extracting("age").containsExactlyInAnyOrder(11, 21, 30, 40);
+    }
+
+    //IN 절 한 번(512개)보다 많아도 벌크 statement는 조건 그대로 한 번
+    @Test
+    void bulkOperationsOverManyRows() {
+        for (int i = 0; i < 600; i++) {
+            em.persist(new Member("bulk" + i, 100));
+        }
+        em.flush();
+
+        long updated = memberBulkOperations.update(member.age.goe(100), clause -> clause.set(member.age, member.age.add(1)));
+
+        assertThat(updated).isEqualTo(600);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(101);
+        assertThat(memberSearchTableRepository.search(condition)).hasSize(600);
+    }
+}
@@ -0,0 +1,55 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberSqlQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    MemberSqlQueryRepository memberSqlQueryRepository;
+
+    @Test
+    void sameResultAsJpa() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50)); //팀 없음 (left join)
+        em.flush(); //querydsl-sql은 JPA를 거치지 않으니 DB에 반영해둬야 보인다
+
+        MemberSearchCondition empty = new MemberSearchCondition();
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(40);
+        condition.setTeamName("teamB");
+
+        for (MemberSearchCondition c : List.of(empty, condition)) {
+            List<MemberTeamDto> jpa = memberRepository.search(c);
+            List<MemberTeamDto> sql = memberSqlQueryRepository.search(c);
+            assertThat(sql).containsExactlyInAnyOrderElementsOf(jpa);
+        }
+        assertThat(memberSqlQueryRepository.search(condition)).extracting("username").containsExactlyInAnyOrder("member3", "member4");
+    }
+}
@@ -0,0 +1,106 @@
+package study.querydsl.shard;
+
+import com.querydsl.sql.SQLQueryFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로컬 H2 메모리 DB 3개를 샤드로 사용
+ */
+class ShardedMemberRepositoryTest {
+
+    ShardedMemberRepository repository;
+
+    @BeforeEach
+    void before() {
+        List<SQLQueryFactory> shards = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:shard" + i + ";DB_CLOSE_DELAY=-1", "sa", "");
+            new ResourceDatabasePopulator(new ClassPathResource("db/member-schema.sql")).execute(dataSource);
+            shards.add(ShardingConfig.createQueryFactory(dataSource));
+        }
+        repository = new ShardedMemberRepository(shards);
+
+        repository.saveTeam(1L, "teamA");
+        repository.saveTeam(2L, "teamB");
+        for (long id = 1; id <= 30; id++) {
+            long teamId = id % 2 == 0 ? 1L : 2L;
+            repository.saveMember(new MemberTeamDto(id, "member" + id, (int) id, teamId, null));
+        }
+    }
+
+    @AfterEach
+    void after() {
+        repository.close();
+        for (int i = 0; i < 3; i++) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:shard" + i, "sa", "");
+            new ResourceDatabasePopulator(new ByteArrayResource("drop all objects".getBytes()))
+                    .execute(dataSource);
+        }
+    }
+
+    //재기동: 테이블이 이미 있는 샤드에 스키마 스크립트를 다시 실행해도 실패하지 않고 데이터도 그대로
+    @Test
+    void initializeSchemaTwice() {
+        for (int i = 0; i < 3; i++) {
+            DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:shard" + i, "sa", "");
+            new ResourceDatabasePopulator(new ClassPathResource("db/member-schema.sql")).execute(dataSource);
+        }
+
+        assertThat(repository.search(new MemberSearchCondition())).hasSize(30);
+    }
+
+    @Test
+    void distributed() {
+        long usedShards = IntStream.rangeClosed(1, 30)
+                .map(id -> repository.shardOf(id))
+                .distinct()
+                .count();
+        assertThat(usedShards).isEqualTo(3);
+    }
+
+    @Test
+    void search() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(20);
+
+        List<MemberTeamDto> result = repository.search(condition);
+
+        //모든 샤드의 결과가 memberId 순으로 합쳐진다, team은 각 샤드에 복제되어 있어서 조인 가능
+        assertThat(result).extracting("username")
+                .containsExactly("member10", "member12", "member14", "member16", "member18", "member20");
+        assertThat(result).extracting("teamName").containsOnly("teamA");
+    }
+
+    @Test
+    void searchPage() {
+        Page<MemberTeamDto> result = repository.searchPageSimple(new MemberSearchCondition(), PageRequest.of(1, 7));
+
+        assertThat(result.getTotalElements()).isEqualTo(30);
+        assertThat(result.getContent()).extracting("memberId")
+                .containsExactlyElementsOf(ids(8, 14));
+    }
+
+    private static List<Long> ids(long from, long to) {
+        return LongStream.rangeClosed(from, to).boxed().collect(Collectors.toList());
+    }
+}
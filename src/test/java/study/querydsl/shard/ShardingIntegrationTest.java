@@ -0,0 +1,128 @@
+package study.querydsl.shard;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * sharding.enabled=true 로 앱을 띄워서 JPA 쓰기 > 샤드 반영 > MemberRepository 검색이 샤드에서 나오는지 본다
+ * 단일 DB도 샤드도 H2 메모리 DB (테스트 공용 tcp DB는 건드리지 않는다)
+ */
+class ShardingIntegrationTest {
+
+    private static final int SHARDS = 3;
+
+    ConfigurableApplicationContext context;
+    ShardedMemberRepository shards;
+    MemberRepository memberRepository;
+    TransactionTemplate tx;
+    EntityManager em;
+
+    @BeforeEach
+    void before() {
+        context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:sharding-primary;DB_CLOSE_DELAY=-1",
+                        "--sharding.enabled=true",
+                        "--sharding.initialize-schema=true",
+                        "--sharding.urls=" + shardUrl(0) + "," + shardUrl(1) + "," + shardUrl(2));
+        shards = context.getBean(ShardedMemberRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        tx = context.getBean(TransactionTemplate.class);
+        em = context.getBean(EntityManager.class);
+    }
+
+    @AfterEach
+    void after() {
+        if (context.isActive()) {
+            context.close();
+        }
+        for (int i = 0; i < SHARDS; i++) {
+            shard(i).execute("drop all objects");
+        }
+    }
+
+    @Test
+    void writesAreMirroredAndSearchesRouted() {
+        Member saved = tx.execute(status -> {
+            Team team = new Team("shardTeam");
+            em.persist(team);
+            Member member = new Member("shardMember", 10, team);
+            em.persist(member);
+            return member;
+        });
+        Long id = saved.getId();
+        int home = shards.shardOf(id);
+
+        //shardOf(id) 샤드 하나에만, team은 모든 샤드에
+        for (int i = 0; i < SHARDS; i++) {
+            assertThat(shard(i).queryForObject("select count(*) from member where member_id = ?", Long.class, id)).isEqualTo(i == home ? 1 : 0);
+            assertThat(shard(i).queryForObject("select count(*) from team where name = 'shardTeam'", Long.class)).isEqualTo(1);
+        }
+
+        //검색은 샤드에서 (샤드에서만 바꾼 값이 보인다)
+        shard(home).update("update member set age = 99 where member_id = ?", id);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("shardTeam");
+        assertThat(memberRepository.search(condition)).extracting("username", "age")
+                .containsExactly(tuple("shardMember", 99));
+
+        //update, delete도 커밋 후 반영
+        tx.executeWithoutResult(status -> em.find(Member.class, id).setAge(20));
+        assertThat(shard(home).queryForObject("select age from member where member_id = ?", Integer.class, id)).isEqualTo(20);
+
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, id)));
+        assertThat(memberRepository.search(condition)).isEmpty();
+    }
+
+    //롤백된 쓰기는 샤드에 안 간다
+    @Test
+    void rollbackIsNotMirrored() {
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("rolledBack", 10));
+            em.flush();
+            status.setRollbackOnly();
+        });
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("rolledBack");
+        assertThat(memberRepository.search(condition)).isEmpty();
+    }
+
+    //컨텍스트가 닫히면 샤드 풀도 닫힌다 (남은 세션은 지금 조회하는 이 커넥션 하나)
+    @Test
+    void poolsClosedWithContext() {
+        memberRepository.search(new MemberSearchCondition());
+        assertThat(shard(0).queryForObject("select count(*) from information_schema.sessions", Long.class)).isGreaterThan(1);
+
+        context.close();
+
+        for (int i = 0; i < SHARDS; i++) {
+            assertThat(shard(i).queryForObject("select count(*) from information_schema.sessions", Long.class)).isEqualTo(1);
+        }
+    }
+
+    private static String shardUrl(int index) {
+        return "jdbc:h2:mem:it-shard" + index + ";DB_CLOSE_DELAY=-1";
+    }
+
+    private static JdbcTemplate shard(int index) {
+        return new JdbcTemplate(new DriverManagerDataSource(shardUrl(index), "sa", ""));
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.slowquery;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryBufferTest {
+
+    @Test
+    void overwriteOldest() {
+        SlowQueryBuffer buffer = new SlowQueryBuffer(3);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(query("select " + i));
+        }
+
+        //최근 3개만, 최근 것부터
+        assertThat(buffer.snapshot()).extracting("sql").containsExactly("select 5", "select 4", "select 3");
+        assertThat(buffer.total()).isEqualTo(5);
+
+        buffer.clear();
+        assertThat(buffer.snapshot()).isEmpty();
+    }
+
+    private SlowQuery query(String sql) {
+        return new SlowQuery(Instant.now(), "test", 1000, sql, sql);
+    }
+}
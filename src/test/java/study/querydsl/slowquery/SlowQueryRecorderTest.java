@@ -0,0 +1,105 @@
+package study.querydsl.slowquery;
+
+import com.p6spy.engine.common.StatementInformation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.sql.DataSource;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SlowQueryRecorderTest {
+
+    DataSource dataSource;
+    SlowQueryRecorder recorder;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws SQLException {
+        SlowQueryProperties properties = new SlowQueryProperties();
+        properties.setThreshold(Duration.ofMillis(100));
+        dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("no connection")); //EXPLAIN 시도 여부만 본다
+        ObjectProvider<DataSource> provider = mock(ObjectProvider.class);
+        when(provider.getObject()).thenReturn(dataSource);
+        recorder = new SlowQueryRecorder(properties, provider);
+    }
+
+    @AfterEach
+    void tearDown() {
+        recorder.shutdown();
+    }
+
+    @Test
+    void belowThreshold() {
+        execute("select * from member", 99);
+
+        assertThat(recorder.getBuffer().snapshot()).isEmpty();
+    }
+
+    @Test
+    void thresholdHitIsRecorded() throws Exception {
+        SlowQuery slowQuery = execute("select * from member where member_id=?", 100);
+
+        assertThat(recorder.getBuffer().snapshot()).containsExactly(slowQuery);
+        assertThat(slowQuery.getElapsedMillis()).isEqualTo(100);
+        assertThat(slowQuery.getSqlWithValues()).isEqualTo("select * from member where member_id=1");
+        awaitPlan(slowQuery);
+        assertThat(slowQuery.getPlan()).startsWith("(explain failed");
+        verify(dataSource).getConnection();
+    }
+
+    @Test
+    void dmlAndLockingSelectAreNeverExplained() throws Exception {
+        SlowQuery insert = execute("insert into member (username, member_id) values (?, ?)", 200);
+        SlowQuery update = execute("update member set age=? where member_id=?", 200);
+        SlowQuery delete = execute("delete from member where member_id=?", 200);
+        SlowQuery forUpdate = execute("select * from member where member_id=? for update", 200);
+        SlowQuery forShare = execute("select * from member where member_id=?\nfor share", 200);
+
+        //EXPLAIN 스레드는 1개라서 마지막 select가 끝났으면 앞에 들어간 작업도 다 끝난 것
+        SlowQuery select = execute("select * from member where member_id=?", 200);
+        awaitPlan(select);
+
+        assertThat(recorder.getBuffer().snapshot()).hasSize(6);
+        assertThat(insert.getPlan()).isNull();
+        assertThat(update.getPlan()).isNull();
+        assertThat(delete.getPlan()).isNull();
+        assertThat(forUpdate.getPlan()).isNull();
+        assertThat(forShare.getPlan()).isNull();
+        verify(dataSource, times(1)).getConnection(); //마지막 select 한 번만
+    }
+
+    @Test
+    void isSelect() {
+        assertThat(SlowQueryRecorder.isSelect("select * from member")).isTrue();
+        assertThat(SlowQueryRecorder.isSelect("  WITH t as (select 1) select * from t")).isTrue();
+        assertThat(SlowQueryRecorder.isSelect("select for_update from member")).isTrue();
+        assertThat(SlowQueryRecorder.isSelect("select * from member FOR UPDATE")).isFalse();
+        assertThat(SlowQueryRecorder.isSelect("select * from member for no key update")).isFalse();
+        assertThat(SlowQueryRecorder.isSelect("select * from member for share")).isFalse();
+        assertThat(SlowQueryRecorder.isSelect("update member set age=1")).isFalse();
+    }
+
+    private SlowQuery execute(String sql, long elapsedMillis) {
+        StatementInformation statement = mock(StatementInformation.class);
+        when(statement.getSql()).thenReturn(sql);
+        when(statement.getSqlWithValues()).thenReturn(sql.replace("?", "1"));
+        recorder.onAfterAnyExecute(statement, TimeUnit.MILLISECONDS.toNanos(elapsedMillis), null);
+        return recorder.getBuffer().snapshot().isEmpty() ? null : recorder.getBuffer().snapshot().get(0);
+    }
+
+    private void awaitPlan(SlowQuery slowQuery) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (slowQuery.getPlan() == null && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
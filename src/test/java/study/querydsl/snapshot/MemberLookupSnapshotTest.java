@@ -0,0 +1,68 @@
+package study.querydsl.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.snapshot.MemberLookupSnapshot.DataVersion;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MemberLookupSnapshotTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writeAndOpen() throws Exception {
+        Path file = dir.resolve("members.bin");
+        List<MemberTeamDto> rows = new ArrayList<>();
+        for (long id = 1; id <= 1000; id++) {
+            rows.add(new MemberTeamDto(id, "member" + id, (int) (id % 100), id % 2 == 0 ? 1L : null, id % 2 == 0 ? "teamA" : null));
+        }
+        rows.add(new MemberTeamDto(1001L, "member7", 70, 2L, "팀B")); //같은 username
+        rows.add(new MemberTeamDto(1002L, null, 10, null, null));
+        DataVersion version = new DataVersion(3, 1, rows.size(), 1002);
+
+        MemberLookupSnapshot.write(file, rows, version);
+        MemberLookupSnapshot snapshot = MemberLookupSnapshot.open(file); //재시작
+
+        assertThat(snapshot.getVersion()).isEqualTo(version);
+        assertThat(snapshot.size()).isEqualTo(1002);
+        assertThat(snapshot.findById(2L)).isEqualTo(new MemberTeamDto(2L, "member2", 2, 1L, "teamA"));
+        assertThat(snapshot.findById(3L)).isEqualTo(new MemberTeamDto(3L, "member3", 3, null, null));
+        assertThat(snapshot.findById(1002L).getUsername()).isNull();
+        assertThat(snapshot.findById(5000L)).isNull();
+
+        assertThat(snapshot.findByUsername("member7")).extracting("memberId").containsExactly(7L, 1001L); //member_id 순
+        assertThat(snapshot.findByUsername("member7")).extracting("teamName").contains("팀B");
+        assertThat(snapshot.findByUsername("member999")).extracting("memberId").containsExactly(999L);
+        assertThat(snapshot.findByUsername("nobody")).isEmpty();
+        assertThat(snapshot.findByUsername(null)).isEmpty();
+    }
+
+    @Test
+    void empty() throws Exception {
+        MemberLookupSnapshot snapshot = MemberLookupSnapshot.write(dir.resolve("empty.bin"), List.of(), new DataVersion(0, 0, 0, 0));
+
+        assertThat(snapshot.findById(1L)).isNull();
+        assertThat(snapshot.findByUsername("member1")).isEmpty();
+    }
+
+    @Test
+    void missingOrBrokenFile() throws Exception {
+        assertThat(MemberLookupSnapshot.open(dir.resolve("none.bin"))).isNull();
+
+        Path file = dir.resolve("members.bin");
+        MemberLookupSnapshot.write(file, List.of(new MemberTeamDto(1L, "member1", 10, null, null)), new DataVersion(1, 0, 1, 1));
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3)); //쓰다 만 파일
+
+        assertThat(MemberLookupSnapshot.open(file)).isNull();
+    }
+}
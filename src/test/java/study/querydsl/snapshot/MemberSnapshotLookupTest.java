@@ -0,0 +1,252 @@
+package study.querydsl.snapshot;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.querydsl.cache.CacheVersionChangedEvent;
+import study.querydsl.cache.CacheVersions;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.snapshot.MemberLookupSnapshot.DataVersion;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 스냅샷은 커밋된 DB 상태를 읽는다 > @Transactional(롤백) 없이 JDBC로 넣고 끝나고 직접 지운다
+ * 재기동은 같은 파일로 MemberSnapshotLookup을 새로 만들어서 흉내낸다
+ * 변경 이벤트의 버전은 Long.MAX_VALUE (스냅샷보다 새 버전, 다른 노드의 커밋)
+ */
+@SpringBootTest(properties = {"member-snapshot.enabled=true", "member-snapshot.file=build/member-snapshot-test.bin",
+        "member-snapshot.check-interval=1h", "member-snapshot.min-rebuild-interval=0s"}) //주기 비교는 빼고 이벤트, 기동 비교만
+class MemberSnapshotLookupTest {
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    DataSource dataSource;
+    @Autowired
+    EntityManagerFactory emf;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    MemberSnapshotLookup memberSnapshotLookup;
+    @Autowired
+    MemberRepository memberRepository;
+
+    List<MemberSnapshotLookup> lookups = new ArrayList<>();
+    Long teamId;
+    Long member1Id;
+
+    @BeforeEach
+    void before() {
+        teamId = jdbcTemplate.queryForObject("select next value for hibernate_sequence", Long.class);
+        jdbcTemplate.update("insert into team (id, name) values (?, ?)", teamId, "snapshotTeam");
+        member1Id = insertMember("snapshot1", 10, teamId);
+        insertMember("snapshot2", 20, null);
+    }
+
+    @AfterEach
+    void after() {
+        lookups.forEach(MemberSnapshotLookup::shutdown);
+        jdbcTemplate.update("delete from member_search where username like 'snapshot%'");
+        jdbcTemplate.update("delete from member where username like 'snapshot%'");
+        jdbcTemplate.update("delete from team where id = ?", teamId);
+    }
+
+    @Test
+    void startupReconcile() throws Exception {
+        MemberSnapshotProperties properties = properties();
+        //지난번 파일이 DB와 다른 상태 (버전 불일치)
+        MemberLookupSnapshot.write(properties.getFile(), List.of(new MemberTeamDto(1L, "snapshotOld", 1, null, null)), new DataVersion(0, 0, 0, 0));
+
+        MemberSnapshotLookup stale = start(properties);
+        //오래된 파일은 쓰지 않는다 (새로 만들기 전이면 DB, 끝났으면 새 스냅샷)
+        assertThat(stale.findByUsername("snapshotOld")).isEmpty();
+        assertThat(stale.findByUsername("snapshot1")).extracting("teamName").containsExactly("snapshotTeam");
+
+        awaitFresh(stale);
+        assertThat(stale.current().findByUsername("snapshotOld")).isEmpty();
+        assertThat(stale.current().findById(member1Id).getUsername()).isEqualTo("snapshot1");
+        stale.shutdown();
+
+        //재기동: 파일 버전이 DB와 같다 > 기다리지 않고 바로 스냅샷에서
+        MemberSnapshotLookup restarted = start(properties);
+        assertThat(restarted.isFresh()).isTrue();
+        assertThat(restarted.findById(member1Id)).get().extracting("username").isEqualTo("snapshot1");
+    }
+
+    @Test
+    void fallbackAfterChangeAndSwap() throws Exception {
+        MemberSnapshotLookup lookup = start(properties());
+        awaitFresh(lookup);
+        MemberLookupSnapshot before = lookup.current();
+
+        //이벤트 없이 들어온 변경은 스냅샷에 안 보인다 (스냅샷에서 읽고 있다는 뜻)
+        Long member3Id = insertMember("snapshot3", 30, teamId);
+        assertThat(lookup.findByUsername("snapshot3")).isEmpty();
+
+        //member, team이 아닌 종류는 무시
+        lookup.onChange(new CacheVersionChangedEvent("Other", 1));
+        assertThat(lookup.isFresh()).isTrue();
+
+        //받는 즉시 DB로 (새로 만들기 전이라도 바로 보인다)
+        lookup.onChange(changed(CacheVersions.MEMBER));
+        assertThat(lookup.findByUsername("snapshot3")).extracting("memberId").containsExactly(member3Id);
+        assertThat(lookup.findById(member3Id)).isPresent();
+
+        //백그라운드에서 새로 만들어서 교체
+        awaitFresh(lookup);
+        assertThat(lookup.current()).isNotSameAs(before);
+        assertThat(lookup.current().size()).isEqualTo(before.size() + 1);
+        assertThat(lookup.current().findById(member3Id).getTeamName()).isEqualTo("snapshotTeam");
+    }
+
+    //DB 조회(order by member_id)와 같은 순서
+    @Test
+    void sameOrderAsDatabase() throws Exception {
+        MemberLookupSnapshot snapshot = MemberLookupSnapshot.write(dir.resolve("order.bin"), List.of(
+                new MemberTeamDto(30L, "snapshotDup", 3, null, null),
+                new MemberTeamDto(10L, "snapshotDup", 1, null, null),
+                new MemberTeamDto(20L, "snapshotDup", 2, null, null)), new DataVersion(0, 0, 3, 30));
+
+        assertThat(snapshot.findByUsername("snapshotDup")).extracting("memberId").containsExactly(10L, 20L, 30L);
+    }
+
+    //member-snapshot이 켜져 있으면 리포지토리 DTO 조회는 스냅샷에서
+    @Test
+    void repositoryUsesSnapshot() throws Exception {
+        memberSnapshotLookup.onChange(changed(CacheVersions.MEMBER)); //이 테스트가 넣은 데이터로 다시
+        awaitFresh(memberSnapshotLookup);
+
+        assertThat(memberRepository.findDtoById(member1Id)).get().extracting("teamName").isEqualTo("snapshotTeam");
+        assertThat(memberRepository.findDtosByUsername("snapshot2")).extracting("age").containsExactly(20);
+
+        //스냅샷에 없는 행 > DB(querydsl)로 갔다면 보였을 것
+        Long hiddenId = insertMember("snapshotHidden", 40, null);
+        assertThat(memberRepository.findDtoById(hiddenId)).isEmpty();
+        assertThat(memberRepository.findDtosByUsername("snapshotHidden")).isEmpty();
+    }
+
+    //이 노드의 커밋은 폴링을 기다리지 않고 커밋 직후부터 보인다
+    @Test
+    void readYourWrites() throws Exception {
+        memberSnapshotLookup.onChange(changed(CacheVersions.MEMBER));
+        awaitFresh(memberSnapshotLookup);
+
+        Member saved = memberRepository.save(new Member("snapshotWrite", 50)); //커밋까지
+        assertThat(memberRepository.findDtoById(saved.getId())).get().extracting("age").isEqualTo(50);
+        assertThat(memberRepository.findDtosByUsername("snapshotWrite")).extracting("memberId").containsExactly(saved.getId());
+
+        //다시 만든 뒤에 폴링이 같은 버전을 알려주면 무시 (한 번 더 만들지 않는다)
+        awaitFresh(memberSnapshotLookup);
+        MemberLookupSnapshot rebuilt = memberSnapshotLookup.current();
+        assertThat(rebuilt.findById(saved.getId())).isNotNull();
+        memberSnapshotLookup.onChange(new CacheVersionChangedEvent(CacheVersions.MEMBER, rebuilt.getVersion().getMemberVersion()));
+        assertThat(memberSnapshotLookup.isFresh()).isTrue();
+        assertThat(memberSnapshotLookup.current()).isSameAs(rebuilt);
+    }
+
+    //만드는 동안에는 이전 스냅샷이 아니라 DB에서, 만드는 동안의 변경도 보이고 끝나면 한 번 더 만든다
+    @Test
+    void readDuringRebuild() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MemberSnapshotLookup lookup = start(new MemberSnapshotLookup(dataSource, properties(), emf) {
+            @Override
+            List<MemberTeamDto> loadRows() {
+                loading.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.loadRows();
+            }
+        });
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //기동 직후 첫 번째 만들기가 멈춰 있다
+        assertThat(lookup.isFresh()).isFalse();
+        assertThat(lookup.findById(member1Id)).get().extracting("teamName").isEqualTo("snapshotTeam");
+        Long member3Id = insertMember("snapshot3", 30, null);
+        lookup.onChange(changed(CacheVersions.MEMBER));
+        assertThat(lookup.findByUsername("snapshot3")).extracting("memberId").containsExactly(member3Id);
+
+        release.countDown();
+        awaitFresh(lookup);
+        assertThat(lookup.current().findById(member3Id)).isNotNull();
+        assertThat(lookup.findByUsername("snapshot3")).extracting("memberId").containsExactly(member3Id);
+    }
+
+    //min-rebuild-interval 안의 변경은 바로 다시 만들지 않고 DB에서 읽는다
+    @Test
+    void rebuildIsRateLimited() throws Exception {
+        MemberSnapshotProperties properties = properties();
+        properties.setMinRebuildInterval(Duration.ofHours(1));
+        MemberSnapshotLookup lookup = start(properties); //첫 번째는 바로
+        awaitFresh(lookup);
+        MemberLookupSnapshot before = lookup.current();
+
+        Long member3Id = insertMember("snapshot3", 30, null);
+        lookup.onChange(changed(CacheVersions.MEMBER));
+        lookup.onChange(changed(CacheVersions.TEAM));
+        Thread.sleep(200);
+
+        assertThat(lookup.isFresh()).isFalse();
+        assertThat(lookup.current()).isSameAs(before);
+        assertThat(lookup.findById(member3Id)).isPresent();
+    }
+
+    private CacheVersionChangedEvent changed(String entityType) {
+        return new CacheVersionChangedEvent(entityType, Long.MAX_VALUE);
+    }
+
+    private MemberSnapshotProperties properties() {
+        MemberSnapshotProperties properties = new MemberSnapshotProperties();
+        properties.setEnabled(true);
+        properties.setFile(dir.resolve("member-snapshot.bin"));
+        properties.setCheckInterval(Duration.ofHours(1));
+        properties.setMinRebuildInterval(Duration.ZERO);
+        return properties;
+    }
+
+    private MemberSnapshotLookup start(MemberSnapshotProperties properties) {
+        return start(new MemberSnapshotLookup(dataSource, properties, emf));
+    }
+
+    private MemberSnapshotLookup start(MemberSnapshotLookup lookup) {
+        lookups.add(lookup);
+        lookup.start();
+        return lookup;
+    }
+
+    private Long insertMember(String username, int age, Long teamId) {
+        Long id = jdbcTemplate.queryForObject("select next value for hibernate_sequence", Long.class);
+        jdbcTemplate.update("insert into member (member_id, username, age, team_id) values (?, ?, ?, ?)", id, username, age, teamId);
+        return id;
+    }
+
+    private void awaitFresh(MemberSnapshotLookup lookup) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!lookup.isFresh() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(lookup.isFresh()).isTrue();
+    }
+}
@@ -0,0 +1,27 @@
+package study.querydsl.support;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 테스트 메소드 본문(@BeforeEach 제외)에서 나가는 SQL 수, 로딩되는 엔티티 수의 상한
+ * 넘으면 테스트 실패 > 쿼리가 늘어나거나 숨은 지연 로딩이 생기면 잡힌다
+ * -1 은 검사 안함
+ * ex) @StatementBudget(select = 2, insert = 6)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(StatementBudgetExtension.class)
+public @interface StatementBudget {
+
+    int select() default -1;
+    int insert() default -1;
+    int update() default -1;
+    int delete() default -1;
+    int entitiesLoaded() default -1; //Hibernate Statistics (hibernate.generate_statistics)
+    int collectionsLoaded() default -1;
+}
@@ -0,0 +1,83 @@
+package study.querydsl.support;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @StatementBudget 검사
+ * 테스트 본문 직전에 카운터를 비우고, 본문이 성공하면 상한과 비교한다
+ * 구간별 검사는 StatementBudgets 파라미터로 (@ExtendWith(StatementBudgetExtension.class) 필요)
+ */
+public class StatementBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(StatementBudgetExtension.class);
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        StatementCounter.reset();
+        Statistics statistics = statistics(context);
+        context.getStore(NAMESPACE).put("entities", statistics.getEntityLoadCount());
+        context.getStore(NAMESPACE).put("collections", statistics.getCollectionLoadCount());
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        StatementBudget budget = context.getRequiredTestMethod().getAnnotation(StatementBudget.class);
+        if (budget == null || context.getExecutionException().isPresent()) { //이미 실패한 테스트는 그 원인을 그대로
+            return;
+        }
+
+        StatementCounter.Counts counts = StatementCounter.current();
+        Statistics statistics = statistics(context);
+        long entities = statistics.getEntityLoadCount() - context.getStore(NAMESPACE).get("entities", Long.class);
+        long collections = statistics.getCollectionLoadCount() - context.getStore(NAMESPACE).get("collections", Long.class);
+
+        List<String> violations = new ArrayList<>();
+        check(violations, "select", budget.select(), counts.getSelect());
+        check(violations, "insert", budget.insert(), counts.getInsert());
+        check(violations, "update", budget.update(), counts.getUpdate());
+        check(violations, "delete", budget.delete(), counts.getDelete());
+        check(violations, "entitiesLoaded", budget.entitiesLoaded(), entities);
+        check(violations, "collectionsLoaded", budget.collectionsLoaded(), collections);
+        if (!violations.isEmpty()) {
+            throw new AssertionError("statement budget exceeded: " + String.join(", ", violations));
+        }
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return parameterContext.getParameter().getType() == StatementBudgets.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return new StatementBudgets(statistics(extensionContext));
+    }
+
+    static void check(List<String> violations, String name, int budget, long actual) {
+        if (budget >= 0 && actual > budget) {
+            violations.add(name + " " + actual + " > " + budget);
+        }
+    }
+
+    private Statistics statistics(ExtensionContext context) {
+        Statistics statistics = SpringExtension.getApplicationContext(context)
+                .getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new IllegalStateException("hibernate.generate_statistics=true 필요");
+        }
+        return statistics;
+    }
+}
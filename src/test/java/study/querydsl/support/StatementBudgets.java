@@ -0,0 +1,81 @@
+package study.querydsl.support;
+
+import org.hibernate.stat.Statistics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 테스트 안의 한 구간에만 거는 @StatementBudget
+ * 테스트 메소드 파라미터로 받는다 (StatementBudgetExtension)
+ * ex) try (var b = budget.expect(1)) { ... } > 구간 안 SQL 전체 1개 이하
+ *     try (var b = budget.expect().select(1).entitiesLoaded(0)) { ... }
+ * 구간 시작 시점과의 차이만 보므로 메소드의 @StatementBudget, 다른 구간과 같이 써도 된다
+ */
+public class StatementBudgets {
+
+    private final Statistics statistics;
+
+    StatementBudgets(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public Scope expect(int statements) {
+        return new Scope().statements(statements);
+    }
+
+    public Scope expect() {
+        return new Scope();
+    }
+
+    /**
+     * 닫을 때 상한과 비교, 넘으면 AssertionError
+     * 구간 안에서 예외가 나면 try-with-resources가 그 예외를 그대로 던진다 (이 검사는 suppressed)
+     */
+    public class Scope implements AutoCloseable {
+
+        private final int select = StatementCounter.current().getSelect();
+        private final int insert = StatementCounter.current().getInsert();
+        private final int update = StatementCounter.current().getUpdate();
+        private final int delete = StatementCounter.current().getDelete();
+        private final long entities = statistics.getEntityLoadCount();
+        private final long collections = statistics.getCollectionLoadCount();
+
+        private int statementsBudget = -1;
+        private int selectBudget = -1;
+        private int insertBudget = -1;
+        private int updateBudget = -1;
+        private int deleteBudget = -1;
+        private int entitiesBudget = -1;
+        private int collectionsBudget = -1;
+
+        public Scope statements(int budget) { statementsBudget = budget; return this; }
+        public Scope select(int budget) { selectBudget = budget; return this; }
+        public Scope insert(int budget) { insertBudget = budget; return this; }
+        public Scope update(int budget) { updateBudget = budget; return this; }
+        public Scope delete(int budget) { deleteBudget = budget; return this; }
+        public Scope entitiesLoaded(int budget) { entitiesBudget = budget; return this; }
+        public Scope collectionsLoaded(int budget) { collectionsBudget = budget; return this; }
+
+        @Override
+        public void close() {
+            StatementCounter.Counts counts = StatementCounter.current();
+            int selects = counts.getSelect() - select;
+            int inserts = counts.getInsert() - insert;
+            int updates = counts.getUpdate() - update;
+            int deletes = counts.getDelete() - delete;
+
+            List<String> violations = new ArrayList<>();
+            StatementBudgetExtension.check(violations, "statements", statementsBudget, selects + inserts + updates + deletes);
+            StatementBudgetExtension.check(violations, "select", selectBudget, selects);
+            StatementBudgetExtension.check(violations, "insert", insertBudget, inserts);
+            StatementBudgetExtension.check(violations, "update", updateBudget, updates);
+            StatementBudgetExtension.check(violations, "delete", deleteBudget, deletes);
+            StatementBudgetExtension.check(violations, "entitiesLoaded", entitiesBudget, statistics.getEntityLoadCount() - entities);
+            StatementBudgetExtension.check(violations, "collectionsLoaded", collectionsBudget, statistics.getCollectionLoadCount() - collections);
+            if (!violations.isEmpty()) {
+                throw new AssertionError("statement budget exceeded in scope: " + String.join(", ", violations));
+            }
+        }
+    }
+}
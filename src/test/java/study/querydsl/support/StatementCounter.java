@@ -0,0 +1,63 @@
+package study.querydsl.support;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Hibernate가 준비하는 SQL을 종류별로 센다 (스레드별)
+ * test application.yml 의 hibernate.session_factory.statement_inspector 로 등록
+ * Hibernate를 거치지 않는 JDBC(doWork 등)는 세지 않는다
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<Counts> COUNTS = ThreadLocal.withInitial(Counts::new);
+
+    @Override
+    public String inspect(String sql) {
+        COUNTS.get().add(sql);
+        return sql;
+    }
+
+    public static Counts current() {
+        return COUNTS.get();
+    }
+
+    public static void reset() {
+        COUNTS.remove();
+    }
+
+    @Getter
+    @ToString
+    public static class Counts {
+
+        private int select;
+        private int insert;
+        private int update;
+        private int delete;
+        @ToString.Exclude
+        private final List<String> statements = new ArrayList<>(); //준비된 SQL 원문 (조인 여부 등 모양 확인용)
+
+        public String last() {
+            return statements.isEmpty() ? null : statements.get(statements.size() - 1);
+        }
+
+        private void add(String sql) {
+            statements.add(sql);
+            String type = sql.trim().toLowerCase(Locale.ROOT);
+            if (type.startsWith("select") || type.startsWith("with")) {
+                select++;
+            } else if (type.startsWith("insert")) {
+                insert++;
+            } else if (type.startsWith("update")) {
+                update++;
+            } else if (type.startsWith("delete")) {
+                delete++;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package study.querydsl.timing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.ServletResponse;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ServerTimingFilterTest {
+
+    @Test
+    void notSampledPassesThrough() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletResponse> passed = new AtomicReference<>();
+
+        filter(0).doFilter(new MockHttpServletRequest("GET", "/hello"), response, (req, res) -> {
+            passed.set(res);
+            res.getWriter().write("hello");
+        });
+
+        //버퍼링 없이 원래 응답 그대로
+        assertThat(passed.get()).isSameAs(response);
+        assertThat(response.getContentAsString()).isEqualTo("hello");
+        assertThat(response.getHeader("Server-Timing")).isNull();
+    }
+
+    @Test
+    void disabledPassesThrough() throws Exception {
+        ServerTimingProperties properties = new ServerTimingProperties();
+        properties.setEnabled(false);
+        properties.setSampleRate(1);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletResponse> passed = new AtomicReference<>();
+
+        new ServerTimingFilter(properties).doFilter(new MockHttpServletRequest("GET", "/hello"), response, (req, res) -> passed.set(res));
+
+        assertThat(passed.get()).isSameAs(response);
+        assertThat(response.getHeader("Server-Timing")).isNull();
+    }
+
+    @Test
+    void sampledBuffersUntilHeader() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<ServletResponse> passed = new AtomicReference<>();
+
+        filter(1).doFilter(new MockHttpServletRequest("GET", "/hello"), response, (req, res) -> {
+            passed.set(res);
+            res.getWriter().write("hello");
+            assertThat(response.getContentAsString()).isEmpty(); //아직 버퍼에
+        });
+
+        assertThat(passed.get()).isInstanceOf(ContentCachingResponseWrapper.class);
+        assertThat(response.getHeader("Server-Timing")).startsWith("queue;dur=");
+        assertThat(response.getContentAsString()).isEqualTo("hello");
+    }
+
+    private ServerTimingFilter filter(double sampleRate) {
+        ServerTimingProperties properties = new ServerTimingProperties();
+        properties.setSampleRate(sampleRate);
+        return new ServerTimingFilter(properties);
+    }
+}
@@ -0,0 +1,153 @@
+package study.querydsl.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * sample-rate는 요청마다 읽으므로 빈 값을 바꿔가며 확인하고 되돌린다
+ * Callable은 테스트 트랜잭션 밖(다른 스레드)에서 돈다 > 데이터 없이 statement 수만 본다
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ServerTimingTest {
+
+    private static final Pattern HEADER = Pattern.compile(
+            "queue;dur=\\d+\\.\\d, " +
+            "db;dur=\\d+\\.\\d;desc=\"statements=(\\d+)\", " +
+            "app;dur=\\d+\\.\\d;desc=\"entities=\\d+ collections=\\d+\", " +
+            "ser;dur=\\d+\\.\\d, " +
+            "total;dur=\\d+\\.\\d");
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    ServerTimingProperties properties;
+    @Autowired
+    MappingJackson2HttpMessageConverter converter;
+    @Autowired
+    ObjectMapper objectMapper;
+    @Autowired
+    MemberRepository memberRepository;
+
+    double sampleRate;
+
+    @BeforeEach
+    void before() {
+        sampleRate = properties.getSampleRate();
+    }
+
+    @AfterEach
+    void after() {
+        properties.setSampleRate(sampleRate);
+    }
+
+    @Test
+    void syncEndpointSampled() throws Exception {
+        properties.setSampleRate(1);
+
+        String serverTiming = mockMvc.perform(get("/hello"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("Server-Timing");
+
+        assertThat(statements(serverTiming)).isZero();
+    }
+
+    @Test
+    void callableEndpointSampled() throws Exception {
+        properties.setSampleRate(1);
+
+        MvcResult started = mockMvc.perform(get("/v2/members"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().doesNotExist("Server-Timing")) //첫 디스패치에서는 아직
+                .andReturn();
+        String serverTiming = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("Server-Timing");
+
+        assertThat(statements(serverTiming)).isGreaterThanOrEqualTo(1); //Callable 스레드의 SQL도 잡힌다
+    }
+
+    @Test
+    void notSampled() throws Exception {
+        properties.setSampleRate(0);
+
+        mockMvc.perform(get("/hello"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Server-Timing"));
+
+        MvcResult started = mockMvc.perform(get("/v2/members"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Server-Timing"));
+    }
+
+    //SQL은 db로, JSON 쓰기는 ser로
+    @Test
+    void attribution() throws Exception {
+        RequestTimings query = new RequestTimings();
+        RequestTimings.bind(query);
+        try {
+            memberRepository.search(new MemberSearchCondition());
+        } finally {
+            RequestTimings.unbind();
+        }
+        assertThat(query.statements.get()).isEqualTo(1);
+        assertThat(query.sqlNanos.get()).isPositive();
+        assertThat(query.serializationNanos.get()).isZero();
+
+        RequestTimings write = new RequestTimings();
+        RequestTimings.bind(write);
+        try {
+            converter.write(List.of(new MemberTeamDto(1L, "member1", 10, 1L, "teamA")), MediaType.APPLICATION_JSON, new MockHttpOutputMessage());
+        } finally {
+            RequestTimings.unbind();
+        }
+        assertThat(write.serializationNanos.get()).isPositive();
+        assertThat(write.statements.get()).isZero();
+    }
+
+    //앱 전체 Jackson 컨버터를 바꾸지만 boot가 만든 ObjectMapper를 그대로 쓴다 > JSON은 같다
+    @Test
+    void converterKeepsObjectMapper() throws Exception {
+        assertThat(converter).isInstanceOf(TimedJackson2HttpMessageConverter.class);
+        assertThat(converter.getObjectMapper()).isSameAs(objectMapper);
+
+        MemberTeamDto dto = new MemberTeamDto(1L, "member1", 10, 1L, "teamA");
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(dto, MediaType.APPLICATION_JSON, output);
+        assertThat(output.getBodyAsString()).isEqualTo(objectMapper.writeValueAsString(dto));
+    }
+
+    private int statements(String serverTiming) {
+        assertThat(serverTiming).isNotNull();
+        Matcher matcher = HEADER.matcher(serverTiming);
+        assertThat(matcher.matches()).as(serverTiming).isTrue();
+        return Integer.parseInt(matcher.group(1));
+    }
+}
@@ -0,0 +1,155 @@
+package study.querydsl.tracing;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "tracing.enabled=true")
+@AutoConfigureMockMvc
+@Transactional
+class TracingTest {
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        InMemorySpanExporter inMemorySpanExporter() {
+            return InMemorySpanExporter.create();
+        }
+    }
+
+    @Autowired
+    MockMvc mockMvc;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    Tracer tracer;
+    @Autowired
+    InMemorySpanExporter exporter;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+        em.flush();
+        em.clear();
+        exporter.reset();
+    }
+
+    @Test
+    void repositoryAndSqlSpansUnderRequestSpan() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        Span request = tracer.spanBuilder("GET /v1/members").setSpanKind(SpanKind.SERVER).startSpan();
+        List<MemberTeamDto> result;
+        try (Scope ignored = request.makeCurrent()) {
+            result = memberJpaRepository.search(condition);
+        } finally {
+            request.end();
+        }
+        assertThat(result).hasSize(2);
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertThat(spans).allMatch(span -> span.getTraceId().equals(request.getSpanContext().getTraceId()));
+
+        SpanData repository = spans.stream().filter(span -> span.getName().equals("MemberJpaRepository.search")).findFirst().orElseThrow();
+        assertThat(repository.getParentSpanId()).isEqualTo(request.getSpanContext().getSpanId());
+        assertThat(repository.getAttributes().get(AttributeKey.stringKey("member.search.shape"))).isEqualTo("teamName");
+
+        SpanData sql = spans.stream().filter(span -> span.getKind() == SpanKind.CLIENT).findFirst().orElseThrow();
+        assertThat(sql.getName()).isEqualTo("SELECT");
+        assertThat(sql.getParentSpanId()).isEqualTo(repository.getSpanId());
+        assertThat(sql.getAttributes().get(AttributeKey.longKey("db.rows"))).isEqualTo(2L);
+        assertThat(sql.getAttributes().get(AttributeKey.stringKey("db.statement"))).doesNotContain("teamA"); //바인딩 값은 안남김
+    }
+
+    @Test
+    void noSpansOutsideRequest() {
+        memberJpaRepository.search(new MemberSearchCondition());
+
+        assertThat(exporter.getFinishedSpanItems()).isEmpty();
+    }
+
+    //TracingInterceptor > Callable 스레드 > 리포지토리 > SQL, traceparent의 trace를 잇는다
+    //Callable은 테스트 트랜잭션 밖에서 돌아서 데이터는 안 보이지만 span 구조만 본다
+    @Test
+    void requestSpanThroughMvc() throws Exception {
+        String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+        String parentSpanId = "00f067aa0ba902b7";
+
+        MvcResult started = mockMvc.perform(get("/v2/members").header("traceparent", "00-" + traceId + "-" + parentSpanId + "-01"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+
+        List<SpanData> spans = exporter.getFinishedSpanItems();
+        assertThat(spans).allMatch(span -> span.getTraceId().equals(traceId));
+
+        List<SpanData> servers = ofKind(spans, SpanKind.SERVER);
+        assertThat(servers).hasSize(1);
+        SpanData server = servers.get(0);
+        assertThat(server.getName()).isEqualTo("GET /v2/members");
+        assertThat(server.getParentSpanId()).isEqualTo(parentSpanId);
+        assertThat(server.getAttributes().get(AttributeKey.longKey("http.status_code"))).isEqualTo(200L);
+
+        //프록시와 MemberRepositoryImpl 둘 다가 아니라 하나만
+        List<SpanData> repositories = ofKind(spans, SpanKind.INTERNAL);
+        assertThat(repositories).extracting("name").containsExactly("MemberRepository.searchPageSimple");
+        assertThat(repositories.get(0).getParentSpanId()).isEqualTo(server.getSpanId());
+
+        List<SpanData> sqls = ofKind(spans, SpanKind.CLIENT);
+        assertThat(sqls).isNotEmpty();
+        assertThat(sqls).allMatch(sql -> sql.getParentSpanId().equals(repositories.get(0).getSpanId()));
+    }
+
+    //traceparent의 sampled 플래그가 꺼져 있으면 (parentBased) 아무 span도 내보내지 않는다
+    @Test
+    void notSampledParent() throws Exception {
+        MvcResult started = mockMvc.perform(get("/v2/members").header("traceparent", "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk());
+
+        assertThat(exporter.getFinishedSpanItems()).isEmpty();
+    }
+
+    private List<SpanData> ofKind(List<SpanData> spans, SpanKind kind) {
+        return spans.stream().filter(span -> span.getKind() == kind).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,78 @@
+package study.querydsl.warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class WarmUpRunnerTest {
+
+    WarmUpProperties properties = new WarmUpProperties();
+    MemberJpaRepository memberJpaRepository = mock(MemberJpaRepository.class);
+    MemberRepository memberRepository = mock(MemberRepository.class);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    WarmUpRunner runner;
+
+    @BeforeEach
+    void before() {
+        runner = new WarmUpRunner(properties, memberJpaRepository, memberRepository,
+                mock(PlatformTransactionManager.class), meterRegistry);
+    }
+
+    @Test
+    void runsEveryShapeAndPageSize() {
+        properties.setIterations(3);
+        properties.setShapes(List.of(new MemberSearchCondition(), new MemberSearchCondition()));
+        properties.setPageSizes(List.of(10, 20));
+
+        runner.run(new DefaultApplicationArguments());
+
+        verify(memberJpaRepository, times(3 * 2)).search(any());
+        verify(memberRepository, times(3 * 2)).search(any());
+        verify(memberRepository, times(3 * 2 * 2)).searchPageSimple(any(), any());
+        verify(memberRepository, times(3 * 2 * 2)).searchPageComplex(any(), any());
+
+        assertThat(meterRegistry.get("warmup.duration").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("warmup.round").tag("round", "first").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("warmup.round").tag("round", "last").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void stopsAtMaxDuration() {
+        properties.setIterations(10_000);
+        properties.setMaxDuration(Duration.ofMillis(100));
+        when(memberJpaRepository.search(any())).thenAnswer(invocation -> {
+            Thread.sleep(20); //느린 DB
+            return List.of();
+        });
+
+        long start = System.nanoTime();
+        runner.run(new DefaultApplicationArguments());
+        long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+        assertThat(elapsed).isLessThan(1000); //마지막 한 바퀴만큼만 넘길 수 있다
+        verify(memberJpaRepository, atMost(10)).search(any());
+        assertThat(meterRegistry.get("warmup.duration").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void disabled() {
+        properties.setEnabled(false);
+
+        runner.run(new DefaultApplicationArguments());
+
+        verifyNoInteractions(memberJpaRepository, memberRepository);
+        assertThat(meterRegistry.find("warmup.duration").timer()).isNull();
+    }
+}
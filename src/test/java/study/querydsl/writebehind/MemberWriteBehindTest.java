@@ -0,0 +1,72 @@
+package study.querydsl.writebehind;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberBulkOperations;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * writer 스레드가 따로 커밋하므로 @Transactional(롤백) 없이 > 끝나고 직접 지운다
+ * JDBC batch는 운영 설정과 같게 (test application.yml에 두면 @StatementBudget의 insert 수가 batch 단위로 바뀐다)
+ */
+@SpringBootTest(properties = {"write-behind.enabled=true", "write-behind.max-batch=50",
+        "spring.jpa.properties.hibernate.jdbc.batch_size=100",
+        "spring.jpa.properties.hibernate.order_inserts=true"})
+class MemberWriteBehindTest {
+
+    @Autowired
+    MemberWriteBehind memberWriteBehind;
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+    @Autowired
+    MemberBulkOperations memberBulkOperations;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void after() {
+        memberBulkOperations.delete(member.username.startsWith("writeBehind"));
+    }
+
+    @Test
+    void groupCommit() throws Exception {
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(memberWriteBehind.save(new Member("writeBehind" + i, i)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        //future가 끝났으면 커밋된 상태 > 다른 트랜잭션에서 보인다
+        Long lastId = futures.get(199).get();
+        assertThat(memberJpaRepository.findById(lastId)).get().extracting("username").isEqualTo("writeBehind199");
+        assertThat(memberJpaRepository.findAllByIds(List.of(futures.get(0).get(), lastId))).hasSize(2);
+    }
+
+    @Test
+    void saveAfterShutdown() throws Exception {
+        //빈은 다른 테스트가 쓰므로 따로 만들어서 멈춘다
+        MemberWriteBehind stopped = new MemberWriteBehind(em, transactionManager, new WriteBehindProperties(), new SimpleMeterRegistry());
+        stopped.shutdown();
+
+        assertThatThrownBy(() -> stopped.save(new Member("writeBehindStopped", 1)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}